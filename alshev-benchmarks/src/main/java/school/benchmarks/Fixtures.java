@@ -0,0 +1,62 @@
+package school.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mapstruct.factory.Mappers;
+import school.dto.SubscriberDto;
+import school.entity.SubscriberEntity;
+import school.mapper.SubscriberMapper;
+import school.repository.SubscriberRepository;
+import school.service.LocalSubscriberChangeBus;
+import school.service.NotificationMetrics;
+import school.service.SubscriberRegistry;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * Builds application objects without a Spring context or database.
+ */
+final class Fixtures {
+    private static final String[] EVENT_TYPES = {
+            SubscriberDto.EVENT_ON_CREATE,
+            SubscriberDto.EVENT_ON_UPDATE,
+            SubscriberDto.EVENT_ON_DELETE
+    };
+
+    private Fixtures() {
+    }
+
+    static SubscriberRegistry registry(int subscribers) {
+        SubscriberRegistry registry = new SubscriberRegistry(
+                emptySubscriberRepository(),
+                Mappers.getMapper(SubscriberMapper.class),
+                new LocalSubscriberChangeBus()
+        );
+        for (long id = 1; id <= subscribers; id++) {
+            SubscriberDto subscriber = new SubscriberDto();
+            subscriber.setId(id);
+            subscriber.setEntity(SubscriberDto.ENTITY_SCHOOL);
+            subscriber.setEventType(EVENT_TYPES[(int) (id % EVENT_TYPES.length)]);
+            subscriber.setUrl("http://localhost:9090/hooks/" + id);
+            registry.put(subscriber);
+        }
+        return registry;
+    }
+
+    static NotificationMetrics metrics() {
+        return new NotificationMetrics(new SimpleMeterRegistry());
+    }
+
+    private static SubscriberRepository emptySubscriberRepository() {
+        return (SubscriberRepository) Proxy.newProxyInstance(
+                SubscriberRepository.class.getClassLoader(),
+                new Class<?>[]{SubscriberRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                        return List.<SubscriberEntity>of();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+        );
+    }
+}
@@ -0,0 +1,79 @@
+package school.benchmarks;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import school.dto.SchoolCreateDTO;
+import school.dto.SchoolEntityDTO;
+import school.dto.SchoolUpdateDto;
+import school.dto.SubscriberDto;
+import school.entity.SchoolEntity;
+import school.entity.SubscriberEntity;
+import school.mapper.SchoolMapper;
+import school.mapper.SubscriberMapper;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+    private SchoolMapper schoolMapper;
+    private SubscriberMapper subscriberMapper;
+    private SchoolCreateDTO createDto;
+    private SchoolEntity schoolEntity;
+    private SchoolEntityDTO oldDto;
+    private SchoolEntityDTO newDto;
+    private SubscriberEntity subscriberEntity;
+
+    @Setup
+    public void setUp() {
+        schoolMapper = Mappers.getMapper(SchoolMapper.class);
+        subscriberMapper = Mappers.getMapper(SubscriberMapper.class);
+
+        createDto = new SchoolCreateDTO();
+        createDto.setName("School No. 57");
+        createDto.setAddress("Malyy Vlasyevskiy per., 7, Moscow");
+
+        schoolEntity = new SchoolEntity();
+        schoolEntity.setId(57L);
+        schoolEntity.setName(createDto.getName());
+        schoolEntity.setAddress(createDto.getAddress());
+        schoolEntity.setCreatedAt(LocalDateTime.now());
+        schoolEntity.setUpdatedAt(LocalDateTime.now());
+
+        oldDto = schoolMapper.toDto(schoolEntity);
+        newDto = schoolMapper.toDto(schoolEntity);
+        newDto.setName("School No. 57 named after ...");
+
+        subscriberEntity = new SubscriberEntity();
+        subscriberEntity.setId(1L);
+        subscriberEntity.setEntity(SubscriberDto.ENTITY_SCHOOL);
+        subscriberEntity.setEventType(SubscriberDto.EVENT_ON_CREATE);
+        subscriberEntity.setUrl("http://localhost:9090/hooks/school");
+        subscriberEntity.setCreatedAt(LocalDateTime.now());
+    }
+
+    @Benchmark
+    public SchoolEntity createDtoToEntity() {
+        return schoolMapper.toEntity(createDto);
+    }
+
+    @Benchmark
+    public SchoolEntityDTO schoolEntityToDto() {
+        return schoolMapper.toDto(schoolEntity);
+    }
+
+    @Benchmark
+    public SubscriberDto subscriberEntityToDto() {
+        return subscriberMapper.toDto(subscriberEntity);
+    }
+
+    @Benchmark
+    public SchoolUpdateDto schoolUpdateDtoConstruction() {
+        return new SchoolUpdateDto(oldDto, newDto);
+    }
+}
@@ -0,0 +1,48 @@
+package school.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import school.dto.NotificationEvent;
+import school.dto.SchoolEntityDTO;
+import school.service.SchoolNotificationThread;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hand-off of events from writers to the fan-out thread. The registry has no subscribers, so the
+ * dispatcher thread only dequeues: this measures the queue and its bookkeeping, not delivery.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationQueueBenchmark {
+    @Param({"10000"})
+    private int queueCapacity;
+
+    private SchoolNotificationThread thread;
+    private SchoolEntityDTO school;
+
+    @Setup
+    public void setUp() {
+        thread = new SchoolNotificationThread("benchmark-dispatcher", Fixtures.registry(0), null, Fixtures.metrics(), queueCapacity);
+        thread.start();
+        school = new SchoolEntityDTO();
+        school.setId(57L);
+        school.setName("School No. 57");
+        school.setAddress("Malyy Vlasyevskiy per., 7, Moscow");
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        thread.interrupt();
+        thread.join();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void enqueueCreated() {
+        thread.enqueue(NotificationEvent.created(school));
+    }
+}
@@ -0,0 +1,60 @@
+package school.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.client.RestTemplate;
+import school.dto.NotificationEvent;
+import school.dto.SchoolEntityDTO;
+import school.dto.SchoolUpdateDto;
+import school.dto.WebhookPayload;
+import school.service.SchoolNotificationSender;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders webhook payloads through {@link SchoolNotificationSender#render}, the once-per-event
+ * step every subscriber delivery then streams from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private SchoolNotificationSender sender;
+    private NotificationEvent created;
+    private NotificationEvent updated;
+
+    @Setup
+    public void setUp() {
+        // Same settings Spring Boot applies to the application's ObjectMapper.
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        sender = new SchoolNotificationSender(new RestTemplate(), objectMapper);
+
+        SchoolEntityDTO school = new SchoolEntityDTO();
+        school.setId(57L);
+        school.setName("School No. 57");
+        school.setAddress("Malyy Vlasyevskiy per., 7, Moscow");
+        SchoolEntityDTO renamed = new SchoolEntityDTO();
+        renamed.setId(57L);
+        renamed.setName("Lyceum No. 57");
+        renamed.setAddress("Malyy Vlasyevskiy per., 7, Moscow");
+        created = NotificationEvent.created(school);
+        updated = NotificationEvent.updated(new SchoolUpdateDto(school, renamed));
+    }
+
+    @Benchmark
+    public WebhookPayload renderCreated() {
+        return sender.render(created);
+    }
+
+    @Benchmark
+    public WebhookPayload renderUpdated() {
+        return sender.render(updated);
+    }
+}
@@ -0,0 +1,50 @@
+package school.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import school.dto.SubscriberDto;
+import school.service.SubscriberRegistry;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscriber lookup done once per school write and once per dispatched event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubscriberLookupBenchmark {
+    @Param({"10", "100", "1000"})
+    private int subscribers;
+
+    private SubscriberRegistry registry;
+
+    @Setup
+    public void setUp() {
+        registry = Fixtures.registry(subscribers);
+    }
+
+    @Benchmark
+    public List<SubscriberDto> subscribersForEvent() {
+        return registry.getSubscribers(SubscriberDto.ENTITY_SCHOOL, SubscriberDto.EVENT_ON_UPDATE);
+    }
+
+    @Benchmark
+    public boolean hasSubscribers() {
+        return registry.hasSubscribers(SubscriberDto.ENTITY_SCHOOL, SubscriberDto.EVENT_ON_CREATE);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void upsertSubscriber() {
+        SubscriberDto subscriber = new SubscriberDto();
+        subscriber.setId(1L);
+        subscriber.setEntity(SubscriberDto.ENTITY_SCHOOL);
+        subscriber.setEventType(SubscriberDto.EVENT_ON_CREATE);
+        subscriber.setUrl("http://localhost:9090/hooks/1");
+        registry.put(subscriber);
+    }
+}
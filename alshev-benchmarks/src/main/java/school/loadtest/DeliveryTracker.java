@@ -0,0 +1,154 @@
+package school.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Matches webhooks received by the sink with the requests that caused them. Events are keyed by
+ * type, school id and, for updates, the new name, which the driver makes unique. The driver only
+ * learns the id of a created school from the response, so a webhook may arrive before its event
+ * is known; such arrivals are parked until the event is recorded.
+ *
+ * <p>The application coalesces updates to the same school, so an update may never arrive because a
+ * later update or the delete of the school was delivered in its place. Such updates are counted as
+ * superseded rather than lost.
+ */
+final class DeliveryTracker {
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final String CREATED = "CREATE";
+    private static final String UPDATED = "UPDATE";
+    private static final String DELETED = "DELETE";
+
+    private final Map<String, Event> events = new ConcurrentHashMap<>();
+    private final Map<String, List<Long>> early = new ConcurrentHashMap<>();
+    private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final AtomicLong expected = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong firstSentNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastDeliveredNanos = new AtomicLong();
+
+    static String createdKey(long schoolId) {
+        return CREATED + ":" + schoolId;
+    }
+
+    static String updatedKey(long schoolId, String newName) {
+        return UPDATED + ":" + schoolId + ":" + newName;
+    }
+
+    static String deletedKey(long schoolId) {
+        return DELETED + ":" + schoolId;
+    }
+
+    /**
+     * Records an event the application accepted at {@code startNanos}, which should be delivered
+     * to {@code subscribers} webhooks.
+     */
+    void sent(String key, long startNanos, int subscribers) {
+        expected.addAndGet(subscribers);
+        firstSentNanos.accumulateAndGet(startNanos, Math::min);
+        Event event = new Event(key, startNanos, subscribers);
+        List<Long> parked;
+        synchronized (this) {
+            events.put(key, event);
+            parked = early.remove(key);
+        }
+        if (parked != null) {
+            for (long receivedNanos : parked) {
+                record(event, receivedNanos);
+            }
+        }
+    }
+
+    void delivered(String key, long receivedNanos) {
+        Event event;
+        synchronized (this) {
+            event = events.get(key);
+            if (event == null) {
+                early.computeIfAbsent(key, k -> new ArrayList<>()).add(receivedNanos);
+                return;
+            }
+        }
+        record(event, receivedNanos);
+    }
+
+    long expectedDeliveries() {
+        return expected.get();
+    }
+
+    long deliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * Expected deliveries of updates that never arrived while a later update or the delete of the
+     * same school did.
+     */
+    long supersededCount() {
+        Map<Long, Long> latestDelivered = new HashMap<>();
+        for (Event event : events.values()) {
+            if (!event.type.equals(CREATED) && event.deliveries.get() > 0) {
+                latestDelivered.merge(event.schoolId, event.startNanos, Math::max);
+            }
+        }
+        long superseded = 0;
+        for (Event event : events.values()) {
+            if (event.type.equals(UPDATED) && event.deliveries.get() == 0) {
+                Long later = latestDelivered.get(event.schoolId);
+                if (later != null && later > event.startNanos) {
+                    superseded += event.subscribers;
+                }
+            }
+        }
+        return superseded;
+    }
+
+    /** Webhooks whose event never got a successful response, e.g. for a request that timed out. */
+    synchronized long unmatchedCount() {
+        return early.values().stream().mapToLong(List::size).sum();
+    }
+
+    long firstSentNanos() {
+        return firstSentNanos.get();
+    }
+
+    long lastDeliveredNanos() {
+        return lastDeliveredNanos.get();
+    }
+
+    Histogram latency() {
+        return latency.copy();
+    }
+
+    private void record(Event event, long receivedNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(0, receivedNanos - event.startNanos));
+        latency.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+        event.deliveries.incrementAndGet();
+        delivered.incrementAndGet();
+        lastDeliveredNanos.accumulateAndGet(receivedNanos, Math::max);
+    }
+
+    private static final class Event {
+        private final String type;
+        private final long schoolId;
+        private final long startNanos;
+        private final int subscribers;
+        private final AtomicInteger deliveries = new AtomicInteger();
+
+        private Event(String key, long startNanos, int subscribers) {
+            String[] parts = key.split(":", 3);
+            this.type = parts[0];
+            this.schoolId = Long.parseLong(parts[1]);
+            this.startNanos = startNanos;
+            this.subscribers = subscribers;
+        }
+    }
+}
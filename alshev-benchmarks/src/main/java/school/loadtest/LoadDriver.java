@@ -0,0 +1,181 @@
+package school.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import school.controller.SchoolRestController;
+import school.dto.SchoolCreateDTO;
+import school.dto.SchoolEntityDTO;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Open-loop request generator for {@link SchoolRestController}: each operation is started on a
+ * fixed schedule regardless of how long earlier requests take, so a slow application shows up as
+ * latency instead of silently lowering the offered rate. Updates and deletes pick a random school
+ * created earlier in the run; until there is one, they are skipped.
+ */
+final class LoadDriver {
+    enum Operation {CREATE, UPDATE, DELETE}
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final String schoolsUrl;
+    private final DeliveryTracker tracker;
+    private final Map<Operation, Integer> subscribers;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "load-driver-http");
+                thread.setDaemon(true);
+                return thread;
+            }))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(3);
+    private final List<Long> liveSchools = new ArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+
+    LoadDriver(String baseUrl, DeliveryTracker tracker, Map<Operation, Integer> subscribers) {
+        this.schoolsUrl = baseUrl + SchoolRestController.BASE_URL;
+        this.tracker = tracker;
+        this.subscribers = subscribers;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    void start(double createRate, double updateRate, double deleteRate) {
+        schedule(createRate, this::create);
+        schedule(updateRate, this::update);
+        schedule(deleteRate, this::delete);
+    }
+
+    void stop() throws InterruptedException {
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    Stats stats(Operation operation) {
+        return stats.get(operation);
+    }
+
+    private void schedule(double ratePerSecond, Runnable operation) {
+        if (ratePerSecond <= 0) {
+            return;
+        }
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        scheduler.scheduleAtFixedRate(operation, 0, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void create() {
+        long n = sequence.incrementAndGet();
+        SchoolCreateDTO school = new SchoolCreateDTO();
+        school.setName("Load school " + n);
+        school.setAddress(n + " Load street");
+        send(Operation.CREATE, HttpRequest.newBuilder(URI.create(schoolsUrl))
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(school))), (response, startNanos) -> {
+            long id = objectMapper.readTree(response.body()).path("id").asLong();
+            synchronized (liveSchools) {
+                liveSchools.add(id);
+            }
+            tracker.sent(DeliveryTracker.createdKey(id), startNanos, subscribers.get(Operation.CREATE));
+        });
+    }
+
+    private void update() {
+        Long id = pickSchool(false);
+        if (id == null) {
+            return;
+        }
+        long n = sequence.incrementAndGet();
+        SchoolEntityDTO school = new SchoolEntityDTO();
+        school.setId(id);
+        school.setName("Load school " + n);
+        school.setAddress(n + " Load street");
+        send(Operation.UPDATE, HttpRequest.newBuilder(URI.create(schoolsUrl + "/" + id))
+                .PUT(HttpRequest.BodyPublishers.ofString(toJson(school))), (response, startNanos) ->
+                tracker.sent(DeliveryTracker.updatedKey(id, school.getName()), startNanos, subscribers.get(Operation.UPDATE)));
+    }
+
+    private void delete() {
+        Long id = pickSchool(true);
+        if (id == null) {
+            return;
+        }
+        send(Operation.DELETE, HttpRequest.newBuilder(URI.create(schoolsUrl + "/" + id)).DELETE(), (response, startNanos) ->
+                tracker.sent(DeliveryTracker.deletedKey(id), startNanos, subscribers.get(Operation.DELETE)));
+    }
+
+    private Long pickSchool(boolean remove) {
+        synchronized (liveSchools) {
+            if (liveSchools.isEmpty()) {
+                return null;
+            }
+            int index = ThreadLocalRandom.current().nextInt(liveSchools.size());
+            if (!remove) {
+                return liveSchools.get(index);
+            }
+            // Swap with the last element so removal does not shift the list.
+            Long id = liveSchools.get(index);
+            liveSchools.set(index, liveSchools.get(liveSchools.size() - 1));
+            liveSchools.remove(liveSchools.size() - 1);
+            return id;
+        }
+    }
+
+    private void send(Operation operation, HttpRequest.Builder request, ResponseHandler onSuccess) {
+        Stats operationStats = stats.get(operation);
+        long startNanos = System.nanoTime();
+        httpClient.sendAsync(
+                request.header("Content-Type", "application/json").timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.ofString()
+        ).whenComplete((response, error) -> {
+            operationStats.latency.recordValue(Math.min(
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos), MAX_LATENCY_MICROS));
+            if (error != null || response.statusCode() >= 300) {
+                operationStats.failed.incrementAndGet();
+                return;
+            }
+            try {
+                onSuccess.handle(response, startNanos);
+                operationStats.succeeded.incrementAndGet();
+            } catch (Exception e) {
+                operationStats.failed.incrementAndGet();
+            }
+        });
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private interface ResponseHandler {
+        void handle(HttpResponse<String> response, long startNanos) throws Exception;
+    }
+
+    static final class Stats {
+        final AtomicLong succeeded = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    }
+}
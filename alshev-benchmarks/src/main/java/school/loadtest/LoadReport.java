@@ -0,0 +1,85 @@
+package school.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints the outcome of a run: what the driver offered, how the REST calls fared, and how many
+ * webhooks arrived and how long after the originating request was sent.
+ */
+final class LoadReport {
+    private final LoadTestOptions options;
+    private final LoadDriver driver;
+    private final DeliveryTracker tracker;
+    private final WebhookSink sink;
+    private final List<Integer> concurrencyLimits;
+
+    LoadReport(LoadTestOptions options, LoadDriver driver, DeliveryTracker tracker, WebhookSink sink,
+               List<Integer> concurrencyLimits) {
+        this.options = options;
+        this.driver = driver;
+        this.tracker = tracker;
+        this.sink = sink;
+        this.concurrencyLimits = concurrencyLimits;
+    }
+
+    void print(PrintStream out) {
+        out.println();
+        out.printf("Offered load: %.1f create/s, %.1f update/s, %.1f delete/s for %d s; %d subscribers per event%n",
+                options.createRate(), options.updateRate(), options.deleteRate(), options.durationSeconds(),
+                options.subscribersPerEvent());
+        out.printf("Sink: %d ms + up to %d ms jitter, failure rate %.3f; %d requests, %d failures injected%n",
+                options.sinkLatencyMs(), options.sinkJitterMs(), options.sinkFailureRate(),
+                sink.requestCount(), sink.injectedFailureCount());
+        out.printf("Peak requests to one subscriber: %d/s%s%n", sink.peakRequestsPerSecond(),
+                options.subscriberRateLimit() > 0 ? String.format(" (limit %.1f/s)", options.subscriberRateLimit()) : "");
+        if (!concurrencyLimits.isEmpty()) {
+            IntSummaryStatistics limits = concurrencyLimits.stream().mapToInt(Integer::intValue).summaryStatistics();
+            out.printf("Final concurrency limit per subscriber: min %d, max %d%n", limits.getMin(), limits.getMax());
+        }
+        if (!options.appProperties().isEmpty()) {
+            out.println("Application overrides: " + options.appProperties());
+        }
+
+        out.println();
+        out.println("REST requests (ms)      ok  failed      p50      p99      max");
+        for (LoadDriver.Operation operation : LoadDriver.Operation.values()) {
+            LoadDriver.Stats stats = driver.stats(operation);
+            Histogram latency = stats.latency.copy();
+            out.printf("  %-12s %10d %7d %8.2f %8.2f %8.2f%n", operation,
+                    stats.succeeded.get(), stats.failed.get(),
+                    millis(latency.getValueAtPercentile(50)),
+                    millis(latency.getValueAtPercentile(99)),
+                    millis(latency.getMaxValue()));
+        }
+
+        long expected = tracker.expectedDeliveries();
+        long delivered = tracker.deliveredCount();
+        long superseded = tracker.supersededCount();
+        out.println();
+        out.printf("Webhooks: %d of %d delivered (%.2f%%), %d superseded by coalesced updates, %d unmatched%n",
+                delivered, expected, expected == 0 ? 0.0 : delivered * 100.0 / expected, superseded,
+                tracker.unmatchedCount());
+        out.printf("Updates received after a later update of the same school: %d%n", sink.outOfOrderCount());
+        if (delivered == 0) {
+            return;
+        }
+        double seconds = (tracker.lastDeliveredNanos() - tracker.firstSentNanos()) / (double) TimeUnit.SECONDS.toNanos(1);
+        out.printf("Delivered throughput: %.1f webhooks/s%n", delivered / seconds);
+
+        Histogram latency = tracker.latency();
+        out.println("Event-to-webhook latency (ms)");
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            out.printf("  p%-6s %10.2f%n", percentile, millis(latency.getValueAtPercentile(percentile)));
+        }
+        out.printf("  %-7s %10.2f%n", "max", millis(latency.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
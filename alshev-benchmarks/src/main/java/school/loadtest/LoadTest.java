@@ -0,0 +1,150 @@
+package school.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import school.SchoolApplication;
+import school.dto.SubscriberDto;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test: starts an embedded Postgres with the repository schema, an in-process
+ * webhook sink and the application on a random port, registers sink subscribers, drives
+ * create/update/delete traffic at the REST API for the configured time and then waits for
+ * outstanding webhooks before printing the report. Run from the repository root:
+ *
+ * <pre>
+ * java -cp alshev-benchmarks/target/benchmarks.jar school.loadtest.LoadTest --duration-s=60 --create-rate=100
+ * </pre>
+ *
+ * See {@link LoadTestOptions} for the options.
+ */
+public final class LoadTest {
+    private static final String[] EVENT_TYPES = {
+            SubscriberDto.EVENT_ON_CREATE,
+            SubscriberDto.EVENT_ON_UPDATE,
+            SubscriberDto.EVENT_ON_DELETE
+    };
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        DeliveryTracker tracker = new DeliveryTracker();
+
+        try (LoadTestDatabase database = LoadTestDatabase.start(new File(options.sqlDirectory()));
+             WebhookSink sink = new WebhookSink(tracker, options.sinkLatencyMs(), options.sinkJitterMs(),
+                     options.sinkFailureRate(), options.sinkThreads());
+             ConfigurableApplicationContext application = SpringApplication.run(
+                     SchoolApplication.class, applicationArguments(options, database))) {
+            String baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+            registerSubscribers(baseUrl, sink, options);
+
+            Map<LoadDriver.Operation, Integer> subscribers = new EnumMap<>(LoadDriver.Operation.class);
+            for (LoadDriver.Operation operation : LoadDriver.Operation.values()) {
+                subscribers.put(operation, options.subscribersPerEvent());
+            }
+            LoadDriver driver = new LoadDriver(baseUrl, tracker, subscribers);
+            System.out.printf("Driving load for %d s against %s%n", options.durationSeconds(), baseUrl);
+            driver.start(options.createRate(), options.updateRate(), options.deleteRate());
+            TimeUnit.SECONDS.sleep(options.durationSeconds());
+            driver.stop();
+
+            awaitDrain(tracker, options.drainIdleSeconds());
+            new LoadReport(options, driver, tracker, sink, concurrencyLimits(baseUrl)).print(System.out);
+        }
+    }
+
+    private static String[] applicationArguments(LoadTestOptions options, LoadTestDatabase database) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", database.jdbcUrl());
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "postgres");
+        properties.put("server.port", "0");
+        // A single node has nobody to sync with; the local bus skips the LISTEN connection.
+        properties.put("notification.registry.bus", "local");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("logging.level.school", "WARN");
+        properties.putAll(options.appProperties());
+
+        List<String> arguments = new ArrayList<>();
+        properties.forEach((name, value) -> arguments.add("--" + name + "=" + value));
+        return arguments.toArray(new String[0]);
+    }
+
+    private static void registerSubscribers(String baseUrl, WebhookSink sink, LoadTestOptions options) throws Exception {
+        HttpClient httpClient = HttpClient.newHttpClient();
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (String eventType : EVENT_TYPES) {
+            for (int i = 1; i <= options.subscribersPerEvent(); i++) {
+                SubscriberDto subscriber = new SubscriberDto();
+                subscriber.setEntity(SubscriberDto.ENTITY_SCHOOL);
+                subscriber.setEventType(eventType);
+                subscriber.setUrl(sink.urlFor(eventType, i));
+                if (options.subscriberBatchSize() > 1) {
+                    subscriber.setBatchSize(options.subscriberBatchSize());
+                    subscriber.setBatchLingerMs(options.subscriberBatchLingerMs());
+                }
+                if (options.subscriberRateLimit() > 0) {
+                    subscriber.setRateLimitPerSecond(options.subscriberRateLimit());
+                }
+                HttpResponse<String> response = httpClient.send(
+                        HttpRequest.newBuilder(URI.create(baseUrl + "/subscribers"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(subscriber)))
+                                .build(),
+                        HttpResponse.BodyHandlers.ofString()
+                );
+                if (response.statusCode() != 201) {
+                    throw new IllegalStateException("Could not register subscriber: " + response.statusCode() + " " + response.body());
+                }
+            }
+        }
+    }
+
+    // Final adaptive concurrency limit of every subscriber, as exported to Prometheus.
+    private static List<Integer> concurrencyLimits(String baseUrl) throws Exception {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/prometheus")).build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        List<Integer> limits = new ArrayList<>();
+        for (String line : response.body().split("\n")) {
+            if (line.startsWith("notification_delivery_concurrency_limit{")) {
+                limits.add((int) Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)));
+            }
+        }
+        return limits;
+    }
+
+    // Waits until every expected webhook arrived or was superseded by coalescing, or until none
+    // arrived for idleSeconds, which covers deliveries abandoned after their last retry.
+    private static void awaitDrain(DeliveryTracker tracker, int idleSeconds) throws InterruptedException {
+        long lastCount = -1;
+        long lastProgress = System.nanoTime();
+        while (tracker.deliveredCount() + tracker.supersededCount() < tracker.expectedDeliveries()) {
+            long count = tracker.deliveredCount();
+            if (count != lastCount) {
+                lastCount = count;
+                lastProgress = System.nanoTime();
+            } else if (System.nanoTime() - lastProgress > TimeUnit.SECONDS.toNanos(idleSeconds)) {
+                System.out.printf("No webhook for %d s, giving up on %d outstanding%n",
+                        idleSeconds, tracker.expectedDeliveries() - count - tracker.supersededCount());
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(200);
+        }
+    }
+}
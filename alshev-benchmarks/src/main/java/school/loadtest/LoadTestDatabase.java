@@ -0,0 +1,58 @@
+package school.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * A throwaway PostgreSQL server started from the binaries bundled with embedded-postgres, with the
+ * repository's sql scripts applied in order. It is a real Postgres, so SKIP LOCKED claims,
+ * partitioning, advisory locks and pg_class estimates behave as in production. Postgres refuses
+ * to run as root, so the load test must not either.
+ */
+final class LoadTestDatabase implements AutoCloseable {
+    private final EmbeddedPostgres postgres;
+
+    private LoadTestDatabase(EmbeddedPostgres postgres) {
+        this.postgres = postgres;
+    }
+
+    static LoadTestDatabase start(File sqlDirectory) throws IOException, SQLException {
+        File[] scripts = sqlDirectory.listFiles((dir, name) -> name.endsWith(".sql"));
+        if (scripts == null || scripts.length == 0) {
+            throw new IllegalArgumentException("No sql scripts found in " + sqlDirectory.getAbsolutePath());
+        }
+        Arrays.sort(scripts);
+
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            for (File script : scripts) {
+                ScriptUtils.executeSqlScript(connection, new FileSystemResource(script));
+            }
+        } catch (RuntimeException | SQLException e) {
+            postgres.close();
+            throw e;
+        }
+        return new LoadTestDatabase(postgres);
+    }
+
+    String jdbcUrl() {
+        return postgres.getJdbcUrl("postgres", "postgres");
+    }
+
+    DataSource dataSource() {
+        return postgres.getPostgresDatabase();
+    }
+
+    @Override
+    public void close() throws IOException {
+        postgres.close();
+    }
+}
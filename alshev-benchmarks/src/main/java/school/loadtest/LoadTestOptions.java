@@ -0,0 +1,117 @@
+package school.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line options of the load test, given as {@code --name=value}. Options prefixed with
+ * {@code app.} are passed to the application as Spring properties, so pipeline settings can be
+ * compared without rebuilding, e.g. {@code --app.notification.delivery.max-concurrency=64}.
+ */
+final class LoadTestOptions {
+    private static final String APP_PREFIX = "app.";
+
+    private final Map<String, String> values = new LinkedHashMap<>();
+    private final Map<String, String> appProperties = new LinkedHashMap<>();
+
+    private LoadTestOptions() {
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (name.startsWith(APP_PREFIX)) {
+                options.appProperties.put(name.substring(APP_PREFIX.length()), value);
+            } else {
+                options.values.put(name, value);
+            }
+        }
+        return options;
+    }
+
+    /** Seconds the driver sends requests for. */
+    int durationSeconds() {
+        return intValue("duration-s", 60);
+    }
+
+    /** Seconds without a new delivery after which the run stops waiting for the pipeline to drain. */
+    int drainIdleSeconds() {
+        return intValue("drain-idle-s", 15);
+    }
+
+    double createRate() {
+        return doubleValue("create-rate", 50);
+    }
+
+    double updateRate() {
+        return doubleValue("update-rate", 30);
+    }
+
+    double deleteRate() {
+        return doubleValue("delete-rate", 10);
+    }
+
+    /** Subscribers registered for each of on_create, on_update and on_delete. */
+    int subscribersPerEvent() {
+        return intValue("subscribers", 2);
+    }
+
+    /** Batch size for the registered subscribers; 0 or 1 delivers one event per request. */
+    int subscriberBatchSize() {
+        return intValue("subscriber-batch-size", 0);
+    }
+
+    long subscriberBatchLingerMs() {
+        return longValue("subscriber-batch-linger-ms", 50);
+    }
+
+    /** Requests per second each registered subscriber accepts; 0 leaves them unlimited. */
+    double subscriberRateLimit() {
+        return doubleValue("subscriber-rate-limit", 0);
+    }
+
+    long sinkLatencyMs() {
+        return longValue("sink-latency-ms", 20);
+    }
+
+    long sinkJitterMs() {
+        return longValue("sink-jitter-ms", 10);
+    }
+
+    double sinkFailureRate() {
+        return doubleValue("sink-failure-rate", 0.0);
+    }
+
+    int sinkThreads() {
+        return intValue("sink-threads", 64);
+    }
+
+    /** Directory with the sql/0x0-*.sql scripts, relative to the working directory. */
+    String sqlDirectory() {
+        return values.getOrDefault("sql-dir", "sql");
+    }
+
+    Map<String, String> appProperties() {
+        return appProperties;
+    }
+
+    private int intValue(String name, int defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private long longValue(String name, long defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    private double doubleValue(String name, double defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,150 @@
+package school.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import school.dto.SubscriberDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process webhook receiver. Each request waits for the configured latency plus a random
+ * jitter, then fails with 503 at the configured rate or acknowledges every payload it carries
+ * (a single object, or an array for batching subscribers) to the {@link DeliveryTracker}. It also
+ * counts updates that reach a subscriber after a later update of the same school, and the most
+ * requests one subscriber received within a wall-clock second.
+ */
+final class WebhookSink implements AutoCloseable {
+    static final String HOOKS_PATH = "/hooks/";
+
+    private final DeliveryTracker tracker;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double failureRate;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedFailures = new AtomicLong();
+    private final AtomicLong outOfOrder = new AtomicLong();
+    private final Map<String, LocalDateTime> lastUpdateDates = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> requestsPerSecond = new ConcurrentHashMap<>();
+
+    WebhookSink(DeliveryTracker tracker, long latencyMs, long jitterMs, double failureRate, int threads) throws IOException {
+        this.tracker = tracker;
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.failureRate = failureRate;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server.setExecutor(executor);
+        this.server.createContext(HOOKS_PATH, this::handle);
+        this.server.start();
+    }
+
+    /** URL of the n-th subscriber to the given event type. */
+    String urlFor(String eventType, int subscriber) {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort() + HOOKS_PATH + eventType + "/" + subscriber;
+    }
+
+    long requestCount() {
+        return requests.get();
+    }
+
+    long injectedFailureCount() {
+        return injectedFailures.get();
+    }
+
+    long outOfOrderCount() {
+        return outOfOrder.get();
+    }
+
+    long peakRequestsPerSecond() {
+        return requestsPerSecond.values().stream().mapToLong(AtomicLong::get).max().orElse(0);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            requests.incrementAndGet();
+            long second = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+            requestsPerSecond.computeIfAbsent(exchange.getRequestURI().getPath() + "@" + second, k -> new AtomicLong())
+                    .incrementAndGet();
+            JsonNode payload = objectMapper.readTree(body);
+            simulateLatency();
+            if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+                injectedFailures.incrementAndGet();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            long receivedNanos = System.nanoTime();
+            String path = exchange.getRequestURI().getPath();
+            String eventType = path.substring(HOOKS_PATH.length(), path.lastIndexOf('/'));
+            if (payload.isArray()) {
+                for (JsonNode item : payload) {
+                    received(path, eventType, item, receivedNanos);
+                }
+            } else {
+                received(path, eventType, payload, receivedNanos);
+            }
+            exchange.sendResponseHeaders(200, -1);
+        }
+    }
+
+    private void received(String path, String eventType, JsonNode payload, long receivedNanos) {
+        tracker.delivered(keyOf(eventType, payload), receivedNanos);
+        if (eventType.equals(SubscriberDto.EVENT_ON_UPDATE)) {
+            LocalDateTime updateDate = LocalDateTime.parse(payload.path("updateDate").asText());
+            LocalDateTime previous = lastUpdateDates.merge(path + "#" + payload.path("schoolId").asLong(), updateDate,
+                    (last, current) -> current.isAfter(last) ? current : last);
+            if (previous.isAfter(updateDate)) {
+                outOfOrder.incrementAndGet();
+            }
+        }
+    }
+
+    private void simulateLatency() {
+        long delayMs = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        if (delayMs <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String keyOf(String eventType, JsonNode payload) {
+        long schoolId = payload.path("schoolId").asLong();
+        switch (eventType) {
+            case SubscriberDto.EVENT_ON_CREATE:
+                return DeliveryTracker.createdKey(schoolId);
+            case SubscriberDto.EVENT_ON_UPDATE:
+                return DeliveryTracker.updatedKey(schoolId, payload.path("newName").asText());
+            case SubscriberDto.EVENT_ON_DELETE:
+                return DeliveryTracker.deletedKey(schoolId);
+            default:
+                throw new IllegalArgumentException("Unknown event type in webhook path: " + eventType);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package school;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String SCHOOLS_CACHE = "schools";
+
+    // The only CacheManager bean. Puts and evictions are applied after commit, so a rolled-back
+    // write never reaches the cache; the Caffeine manager behind it is not a bean of its own.
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${school.cache.max-size:10000}") long maxSize,
+            @Value("${school.cache.ttl-ms:600000}") long ttlMs
+    ) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(SCHOOLS_CACHE);
+        caffeineCacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats());
+        caffeineCacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
@@ -0,0 +1,25 @@
+package school;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Streamed responses are written on their own small pool, not on the webhook executor or the MVC
+ * default async executor. The controller hands its streams to this pool with their own timeout.
+ */
+@Configuration
+public class StreamingConfig {
+    @Bean
+    public ThreadPoolTaskExecutor streamingExecutor(
+            @Value("${school.stream.max-concurrency:8}") int maxConcurrency
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("stream-");
+        return executor;
+    }
+}
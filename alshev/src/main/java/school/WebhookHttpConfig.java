@@ -0,0 +1,251 @@
+package school;
+
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+
+@Configuration
+public class WebhookHttpConfig {
+    private static final String HTTP2_PROPERTY = "webhook.http.http2";
+
+    @Bean
+    public RestTemplate webhookRestTemplate(
+            RestTemplateBuilder builder,
+            ClientHttpRequestFactory webhookRequestFactory
+    ) {
+        return builder.requestFactory(() -> webhookRequestFactory).build();
+    }
+
+    // Pooled HTTP/1.1 transport. The connection pool is only built when it is actually used.
+    @Bean
+    @ConditionalOnProperty(name = HTTP2_PROPERTY, havingValue = "false", matchIfMissing = true)
+    public ClientHttpRequestFactory pooledWebhookRequestFactory(
+            @Value("${webhook.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${webhook.http.read-timeout-ms:5000}") long readTimeoutMs,
+            @Value("${webhook.http.total-timeout-ms:10000}") long totalTimeoutMs,
+            @Value("${webhook.http.pool-acquire-timeout-ms:1000}") long poolAcquireTimeoutMs,
+            @Value("${webhook.http.max-connections:200}") int maxConnections,
+            @Value("${webhook.http.max-connections-per-host:20}") int maxConnectionsPerHost,
+            @Value("${webhook.http.keep-alive-ms:30000}") long keepAliveMs
+    ) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerHost)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.LAX)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        CloseableHttpClient client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolAcquireTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAliveMs))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(keepAliveMs))
+                .disableAutomaticRetries()
+                .disableCookieManagement()
+                .build();
+        return new DeadlineRequestFactory(client, Duration.ofMillis(totalTimeoutMs));
+    }
+
+    // The JDK client has no per-read timeout; its request timeout bounds the whole exchange up to
+    // the response headers, so it is given the total timeout.
+    @Bean
+    @ConditionalOnProperty(name = HTTP2_PROPERTY, havingValue = "true")
+    public ClientHttpRequestFactory http2WebhookRequestFactory(
+            @Value("${webhook.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${webhook.http.total-timeout-ms:10000}") long totalTimeoutMs
+    ) {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(client);
+        factory.setReadTimeout(Duration.ofMillis(totalTimeoutMs));
+        return factory;
+    }
+
+    /**
+     * Apache HttpClient only has connect, pool and per-read timeouts, so a subscriber that trickles
+     * its response a byte at a time could hold a connection indefinitely. Every request is therefore
+     * cancelled once the total timeout has passed since it was created. The scheduled cancel is
+     * withdrawn when the response is closed or the exchange fails, so the scheduler only holds
+     * requests that are still in flight.
+     */
+    static final class DeadlineRequestFactory extends HttpComponentsClientHttpRequestFactory {
+        private final Duration totalTimeout;
+        private final ThreadPoolTaskScheduler deadlines = new ThreadPoolTaskScheduler();
+        // Hands the native request from postProcessHttpRequest to createRequest on the same thread.
+        private final ThreadLocal<HttpUriRequestBase> created = new ThreadLocal<>();
+
+        DeadlineRequestFactory(CloseableHttpClient client, Duration totalTimeout) {
+            super(client);
+            this.totalTimeout = totalTimeout;
+            deadlines.setThreadNamePrefix("webhook-deadline-");
+            deadlines.setDaemon(true);
+            deadlines.setRemoveOnCancelPolicy(true);
+            deadlines.initialize();
+        }
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+            ClientHttpRequest request;
+            HttpUriRequestBase nativeRequest;
+            try {
+                request = super.createRequest(uri, httpMethod);
+            } finally {
+                nativeRequest = created.get();
+                created.remove();
+            }
+            if (nativeRequest == null) {
+                return request;
+            }
+            ScheduledFuture<?> deadline = deadlines.schedule(nativeRequest::cancel, Instant.now().plus(totalTimeout));
+            return new DeadlineRequest(request, deadline);
+        }
+
+        @Override
+        protected void postProcessHttpRequest(ClassicHttpRequest request) {
+            if (request instanceof HttpUriRequestBase) {
+                created.set((HttpUriRequestBase) request);
+            }
+        }
+
+        @Override
+        public void destroy() throws Exception {
+            deadlines.shutdown();
+            super.destroy();
+        }
+    }
+
+    // Streams like the request it wraps, so a rendered payload is written straight to the connection.
+    private static final class DeadlineRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+        private final ClientHttpRequest delegate;
+        private final ScheduledFuture<?> deadline;
+
+        DeadlineRequest(ClientHttpRequest delegate, ScheduledFuture<?> deadline) {
+            this.delegate = delegate;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            try {
+                return new DeadlineResponse(delegate.execute(), deadline);
+            } catch (IOException | RuntimeException e) {
+                deadline.cancel(false);
+                throw e;
+            }
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void setBody(Body body) {
+            if (delegate instanceof StreamingHttpOutputMessage) {
+                ((StreamingHttpOutputMessage) delegate).setBody(body);
+                return;
+            }
+            try {
+                body.writeTo(delegate.getBody());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+    }
+
+    private static final class DeadlineResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final ScheduledFuture<?> deadline;
+
+        DeadlineResponse(ClientHttpResponse delegate, ScheduledFuture<?> deadline) {
+            this.delegate = delegate;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            deadline.cancel(false);
+            delegate.close();
+        }
+    }
+}
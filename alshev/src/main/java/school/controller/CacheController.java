@@ -0,0 +1,58 @@
+package school.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import school.dto.CacheStatsDto;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping(CacheController.BASE_URL)
+public class CacheController {
+    public static final String BASE_URL = "/api/cache";
+    private final CacheManager cacheManager;
+
+    @Autowired
+    public CacheController(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @GetMapping
+    @Operation(summary = "Size and hit rate of each cache")
+    public ResponseEntity<List<CacheStatsDto>> getCacheStats() {
+        List<CacheStatsDto> stats = cacheManager.getCacheNames().stream()
+                .map(name -> statsOf(name, nativeCacheOf(cacheManager.getCache(name))))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(stats);
+    }
+
+    // Caches come wrapped by the transaction-aware proxy.
+    private static Cache<Object, Object> nativeCacheOf(org.springframework.cache.Cache cache) {
+        if (cache instanceof TransactionAwareCacheDecorator) {
+            cache = ((TransactionAwareCacheDecorator) cache).getTargetCache();
+        }
+        return ((CaffeineCache) cache).getNativeCache();
+    }
+
+    private static CacheStatsDto statsOf(String name, Cache<Object, Object> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(
+                name,
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount()
+        );
+    }
+}
@@ -0,0 +1,92 @@
+package school.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import school.dto.DeliveryAttemptFilter;
+import school.dto.DeliveryAttemptPageDto;
+import school.dto.NotificationQueueStatsDto;
+import school.dto.SubscriberDailyStatsDto;
+import school.dto.SubscriberDeliveryStatsDto;
+import school.dto.SubscriberHealthDto;
+import school.service.CircuitBreakerRegistry;
+import school.service.DeliveryLogService;
+import school.service.ThreadService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping(NotificationController.BASE_URL)
+public class NotificationController {
+    public static final String BASE_URL = "/api/notifications";
+    private static final int MAX_PAGE_SIZE = 1000;
+    private final ThreadService threadService;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final DeliveryLogService deliveryLogService;
+
+    @Autowired
+    public NotificationController(
+            ThreadService threadService,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            DeliveryLogService deliveryLogService
+    ) {
+        this.threadService = threadService;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.deliveryLogService = deliveryLogService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Delivery attempts, newest first; page with nextBefore")
+    public ResponseEntity<DeliveryAttemptPageDto> getDeliveryAttempts(
+            DeliveryAttemptFilter filter,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return ResponseEntity.ok(deliveryLogService.findAttempts(filter, before, size));
+    }
+
+    @GetMapping("/subscribers/stats")
+    @Operation(summary = "Attempts, failures and latency per subscriber over the last hours, worst first")
+    public ResponseEntity<List<SubscriberDeliveryStatsDto>> getSubscriberStats(
+            @RequestParam(defaultValue = "24") int hours
+    ) {
+        if (hours < 1) {
+            throw new IllegalArgumentException("hours must be positive");
+        }
+        return ResponseEntity.ok(deliveryLogService.summarizeSubscribers(LocalDateTime.now().minusHours(hours)));
+    }
+
+    @GetMapping("/subscribers/{id}/daily")
+    @Operation(summary = "Daily delivery counters of a subscriber for days past the log retention period")
+    public ResponseEntity<List<SubscriberDailyStatsDto>> getSubscriberDailyStats(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "90") int days
+    ) {
+        if (days < 1) {
+            throw new IllegalArgumentException("days must be positive");
+        }
+        return ResponseEntity.ok(deliveryLogService.findDailyStats(id, LocalDate.now().minusDays(days)));
+    }
+
+    @GetMapping("/queue")
+    @Operation(summary = "Notification queue depth and dispatch latency")
+    public ResponseEntity<NotificationQueueStatsDto> getQueueStats() {
+        return ResponseEntity.ok(threadService.getQueueStats());
+    }
+
+    @GetMapping("/subscribers/health")
+    @Operation(summary = "Circuit state and health score of each subscriber, least healthy first")
+    public ResponseEntity<List<SubscriberHealthDto>> getSubscriberHealth() {
+        return ResponseEntity.ok(circuitBreakerRegistry.getHealth());
+    }
+}
@@ -2,8 +2,6 @@ package school.controller;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -11,6 +9,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import school.dto.SchoolCreateDTO;
 import school.dto.SchoolEntityDTO;
+import school.dto.SchoolPageDto;
 import school.exception.ResourceNotFoundException;
 import school.exception.SchoolServiceException;
 import school.exception.SchoolUpdateException;
@@ -54,10 +53,12 @@ public class SchoolController {
     }
 
     @GetMapping
-    public String listSchools(Model model, @RequestParam(defaultValue = "0") int page) {
-        Page<SchoolEntityDTO> schoolPage = schoolService.getAllSchoolsPaged(PageRequest.of(page, PAGE_SIZE));
-        if (schoolPage.isEmpty() && page > 0) {
-            return "redirect:" + BASE_URL + "?page=" + (page - 1);
+    public String listSchools(Model model,
+                              @RequestParam(required = false) Long after,
+                              @RequestParam(required = false) Long before) {
+        SchoolPageDto schoolPage = schoolService.getSchoolsPage(after, before, PAGE_SIZE, true);
+        if (schoolPage.getItems().isEmpty() && (after != null || before != null)) {
+            return "redirect:" + BASE_URL;
         }
 
         model.addAttribute("baseUrl", BASE_URL);
@@ -65,10 +66,12 @@ public class SchoolController {
         model.addAttribute("editUrl", EDIT_URL);
         model.addAttribute("deleteUrl", DELETE_URL);
 
-        model.addAttribute("schools", schoolPage.getContent());
-        model.addAttribute("currentPage", schoolPage.getNumber());
-        model.addAttribute("totalPages", schoolPage.getTotalPages());
-        model.addAttribute("totalItems", schoolPage.getTotalElements());
+        model.addAttribute("schools", schoolPage.getItems());
+        model.addAttribute("hasNext", schoolPage.isHasNext());
+        model.addAttribute("hasPrevious", schoolPage.isHasPrevious());
+        model.addAttribute("nextAfter", schoolPage.getNextAfter());
+        model.addAttribute("previousBefore", schoolPage.getPreviousBefore());
+        model.addAttribute("totalItems", schoolPage.getEstimatedTotal());
         return LIST_VIEW;
     }
 
@@ -1,29 +1,62 @@
 package school.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import school.dto.BulkImportResultDto;
 import school.dto.SchoolCreateDTO;
 import school.dto.SchoolEntityDTO;
+import school.dto.SchoolPageDto;
+import school.exception.NoContentException;
 import school.exception.ResourceNotFoundException;
 import school.exception.SchoolServiceException;
+import school.service.SchoolBulkImportService;
 import school.service.SchoolService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 @RestController
 @RequestMapping(SchoolRestController.BASE_URL)
 public class SchoolRestController {
     public static final String BASE_URL = "/api/schools";
+    public static final String BULK_URL = "/bulk";
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final String CSV_VALUE = "text/csv";
+    public static final String PAGE_URL = "/page";
+    private static final int STREAM_CHUNK_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 1000;
     private final SchoolService schoolService;
+    private final SchoolBulkImportService schoolBulkImportService;
+    private final ObjectMapper objectMapper;
+    private final AsyncTaskExecutor streamingExecutor;
+    private final long streamTimeoutMs;
 
     @Autowired
-    public SchoolRestController(SchoolService schoolService) {
+    public SchoolRestController(SchoolService schoolService,
+                                SchoolBulkImportService schoolBulkImportService,
+                                ObjectMapper objectMapper,
+                                @Qualifier("streamingExecutor") AsyncTaskExecutor streamingExecutor,
+                                @Value("${school.stream.timeout-ms:300000}") long streamTimeoutMs) {
         this.schoolService = schoolService;
+        this.schoolBulkImportService = schoolBulkImportService;
+        this.objectMapper = objectMapper;
+        this.streamingExecutor = streamingExecutor;
+        this.streamTimeoutMs = streamTimeoutMs;
     }
     @PostMapping
     @Operation(summary = "Create a school")
@@ -32,6 +65,18 @@ public class SchoolRestController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdSchool);
     }
 
+    @PostMapping(value = BULK_URL, consumes = NDJSON_VALUE)
+    @Operation(summary = "Import schools from newline-delimited JSON")
+    public ResponseEntity<BulkImportResultDto> importNdjson(InputStream body) {
+        return ResponseEntity.ok(schoolBulkImportService.importNdjson(body));
+    }
+
+    @PostMapping(value = BULK_URL, consumes = CSV_VALUE)
+    @Operation(summary = "Import schools from CSV (name,address)")
+    public ResponseEntity<BulkImportResultDto> importCsv(InputStream body) {
+        return ResponseEntity.ok(schoolBulkImportService.importCsv(body));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update the school")
     public ResponseEntity<SchoolEntityDTO> updateSchool(@PathVariable Long id, @Valid @RequestBody SchoolEntityDTO schoolEntityDTO) {
@@ -51,10 +96,66 @@ public class SchoolRestController {
         SchoolEntityDTO school = schoolService.findById(id);
         return ResponseEntity.ok(school);
     }
+    @GetMapping(PAGE_URL)
+    @Operation(summary = "Page through schools by id: pass nextAfter as after, or previousBefore as before")
+    public ResponseEntity<SchoolPageDto> getSchoolsPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean count
+    ) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (after != null && before != null) {
+            throw new IllegalArgumentException("Use either after or before, not both");
+        }
+        return ResponseEntity.ok(schoolService.getSchoolsPage(after, before, size, count));
+    }
+
     @GetMapping
-    @Operation(summary = "Find all schools")
-    public ResponseEntity<List<SchoolEntityDTO>> getAllSchools() {
-        List<SchoolEntityDTO> schools = schoolService.getAllSchools();
-        return ResponseEntity.ok(schools);
+    @Operation(summary = "Find all schools, streamed in id order starting after the given id")
+    public WebAsyncTask<Void> getAllSchools(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) Integer limit,
+            HttpServletResponse response
+    ) {
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        int max = limit == null ? Integer.MAX_VALUE : limit;
+        List<SchoolEntityDTO> first = schoolService.findSchoolsAfter(after, Math.min(STREAM_CHUNK_SIZE, max));
+        if (first.isEmpty()) {
+            throw new NoContentException("No schools found");
+        }
+        // Written on the streaming pool with its own timeout; the MVC async defaults stay untouched.
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        return new WebAsyncTask<>(streamTimeoutMs, streamingExecutor, () -> {
+            writeSchools(response.getOutputStream(), first, max);
+            return null;
+        });
+    }
+
+    // Later chunks are read while the array is written. The generator neither closes the array
+    // nor the stream on its own, so a failure then aborts the response instead of ending it early.
+    private void writeSchools(OutputStream out, List<SchoolEntityDTO> chunk, int remaining) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartArray();
+            while (true) {
+                for (SchoolEntityDTO school : chunk) {
+                    generator.writeObject(school);
+                }
+                generator.flush();
+                remaining -= chunk.size();
+                if (chunk.size() < STREAM_CHUNK_SIZE || remaining <= 0) {
+                    break;
+                }
+                long lastId = chunk.get(chunk.size() - 1).getId();
+                chunk = schoolService.findSchoolsAfter(lastId, Math.min(STREAM_CHUNK_SIZE, remaining));
+            }
+            generator.writeEndArray();
+        }
     }
 }
\ No newline at end of file
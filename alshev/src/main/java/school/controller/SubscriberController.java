@@ -9,7 +9,6 @@ import org.springframework.web.bind.annotation.*;
 import school.dto.SubscriberDto;
 import school.entity.SubscriberEntity;
 import school.service.SubscriberService;
-import school.service.ThreadService;
 
 import java.util.List;
 
@@ -17,20 +16,16 @@ import java.util.List;
 @RequestMapping("/subscribers")
 public class SubscriberController {
     private final SubscriberService subscriberService;
-    private final ThreadService threadService;
 
     @Autowired
-    public SubscriberController(SubscriberService subscriberService,
-                                ThreadService threadService) {
+    public SubscriberController(SubscriberService subscriberService) {
         this.subscriberService = subscriberService;
-        this.threadService = threadService;
     }
 
     @PostMapping
     @Operation(summary = "Add subscriber")
     public ResponseEntity<SubscriberEntity> addSubscriber(@Valid @RequestBody SubscriberDto subscriberDto) {
         SubscriberEntity savedEntity = subscriberService.createSubscriber(subscriberDto);
-        threadService.addSubscriber(subscriberDto);
         return ResponseEntity.status(HttpStatus.CREATED).body(savedEntity);
     }
 
@@ -0,0 +1,15 @@
+package school.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkImportResultDto {
+    private int received;
+    private int created;
+    private int duplicates;
+    private int rejected;
+    private List<String> errors = new ArrayList<>();
+}
@@ -0,0 +1,20 @@
+package school.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class DeliveryAttemptDto {
+    private Long id;
+    private Long eventId;
+    private Long schoolId;
+    private Long subscriberId;
+    private String eventType;
+    private int attempt;
+    private Integer httpStatus;
+    private long durationMs;
+    private boolean success;
+    private String error;
+    private LocalDateTime createdAt;
+}
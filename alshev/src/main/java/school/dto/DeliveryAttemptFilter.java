@@ -0,0 +1,19 @@
+package school.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Data
+public class DeliveryAttemptFilter {
+    private Long subscriberId;
+    private Long schoolId;
+    private Long eventId;
+    private Boolean success;
+    private Long minDurationMs;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+}
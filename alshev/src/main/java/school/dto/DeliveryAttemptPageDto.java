@@ -0,0 +1,12 @@
+package school.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class DeliveryAttemptPageDto {
+    private List<DeliveryAttemptDto> items;
+    private boolean hasNext;
+    private Long nextBefore;
+}
@@ -0,0 +1,30 @@
+package school.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class NotificationBatch {
+    private final SubscriberDto subscriberDto;
+    private final List<NotificationTask> tasks;
+    private int attempts;
+
+    public NotificationBatch(SubscriberDto subscriberDto, List<NotificationTask> tasks) {
+        this.subscriberDto = subscriberDto;
+        this.tasks = tasks;
+    }
+
+    public int nextAttempt() {
+        return ++attempts;
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationBatch{" +
+                "subscriber=" + subscriberDto.getId() +
+                ", size=" + tasks.size() +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
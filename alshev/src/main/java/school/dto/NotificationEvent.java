@@ -0,0 +1,96 @@
+package school.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import school.enums.NotificationType;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Getter
+public class NotificationEvent {
+    private final NotificationType type;
+    private final SchoolEntityDTO schoolEntityDTO;
+    private final SchoolUpdateDto schoolUpdateDto;
+    private final long enqueuedAt;
+    @Setter
+    private Long outboxId;
+    /** When the school changed; create payloads carry it so every subscriber and retry sees the same time. */
+    @Setter
+    private LocalDateTime occurredAt;
+    @Setter
+    private WebhookPayload payload;
+    @Setter
+    private Runnable onComplete;
+    /** Runs instead of {@link #onComplete} when a delivery could not record its outcome. */
+    @Setter
+    private Runnable onRelease;
+    private final AtomicInteger pendingDeliveries = new AtomicInteger();
+    private volatile boolean failed;
+
+    private NotificationEvent(NotificationType type, SchoolEntityDTO schoolEntityDTO, SchoolUpdateDto schoolUpdateDto) {
+        this.type = type;
+        this.schoolEntityDTO = schoolEntityDTO;
+        this.schoolUpdateDto = schoolUpdateDto;
+        this.enqueuedAt = System.nanoTime();
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    public static NotificationEvent created(SchoolEntityDTO schoolEntityDTO) {
+        return new NotificationEvent(NotificationType.CREATE, schoolEntityDTO, null);
+    }
+
+    public static NotificationEvent updated(SchoolUpdateDto schoolUpdateDto) {
+        return new NotificationEvent(NotificationType.UPDATE, null, schoolUpdateDto);
+    }
+
+    public static NotificationEvent deleted(SchoolEntityDTO schoolEntityDTO) {
+        return new NotificationEvent(NotificationType.DELETE, schoolEntityDTO, null);
+    }
+
+    // Boxed, so a school without an id gives null instead of failing to unbox.
+    public Long getSchoolId() {
+        return schoolUpdateDto != null ? Long.valueOf(schoolUpdateDto.getSchoolId()) : schoolEntityDTO.getId();
+    }
+
+    public void expectDeliveries(int deliveries) {
+        if (deliveries == 0) {
+            complete();
+        } else {
+            pendingDeliveries.set(deliveries);
+        }
+    }
+
+    public void deliveryFinished() {
+        if (pendingDeliveries.decrementAndGet() == 0) {
+            complete();
+        }
+    }
+
+    public void deliveryFailed() {
+        failed = true;
+        deliveryFinished();
+    }
+
+    /** Gives the event back before any delivery was expected, as if one had failed. */
+    public void release() {
+        failed = true;
+        complete();
+    }
+
+    private void complete() {
+        Runnable callback = failed ? onRelease : onComplete;
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationEvent{" +
+                "type=" + type +
+                ", outboxId=" + outboxId +
+                ", school=" + (schoolUpdateDto != null ? schoolUpdateDto : schoolEntityDTO) +
+                '}';
+    }
+}
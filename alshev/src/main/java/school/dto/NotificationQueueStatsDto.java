@@ -0,0 +1,17 @@
+package school.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationQueueStatsDto {
+    private int queueDepth;
+    private int queueCapacity;
+    private long dispatchedEvents;
+    private double averageDispatchLatencyMs;
+    private double maxDispatchLatencyMs;
+    private int partitions;
+}
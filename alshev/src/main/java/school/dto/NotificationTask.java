@@ -1,9 +1,8 @@
 package school.dto;
 
 import lombok.Data;
-import school.dto.SchoolEntityDTO;
-import school.dto.SchoolUpdateDto;
-import school.dto.SubscriberDto;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import school.enums.NotificationType;
 
 @Data
@@ -13,22 +12,41 @@ public class NotificationTask {
     private SubscriberDto subscriberDto;
     private NotificationType type;
     private String status;
+    private int attempts;
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final NotificationEvent event;
 
-    public NotificationTask(SchoolEntityDTO schoolEntityDTO, SubscriberDto subscriberDto) {
-        this.schoolEntityDTO = schoolEntityDTO;
+    public NotificationTask(NotificationEvent event, SubscriberDto subscriberDto) {
+        this.schoolEntityDTO = event.getSchoolEntityDTO();
+        this.schoolUpdateDto = event.getSchoolUpdateDto();
         this.subscriberDto = subscriberDto;
-        this.type = NotificationType.CREATE;
+        this.type = event.getType();
+        this.event = event;
     }
 
-    public NotificationTask(SchoolUpdateDto schoolUpdateDto, SubscriberDto subscriberDto) {
-        this.schoolUpdateDto = schoolUpdateDto;
-        this.subscriberDto = subscriberDto;
-        this.type = NotificationType.UPDATE;
+    // Boxed, so a school without an id gives null instead of failing to unbox.
+    public Long getSchoolId() {
+        return schoolUpdateDto != null ? Long.valueOf(schoolUpdateDto.getSchoolId()) : schoolEntityDTO.getId();
     }
 
-    public NotificationTask(SchoolEntityDTO schoolEntityDTO, SubscriberDto subscriberDto, boolean isDelete) {
-        this.schoolEntityDTO = schoolEntityDTO;
-        this.subscriberDto = subscriberDto;
-        this.type = NotificationType.DELETE;
+    public WebhookPayload getPayload() {
+        return event.getPayload();
+    }
+
+    public Long getEventId() {
+        return event.getOutboxId();
+    }
+
+    public int nextAttempt() {
+        return ++attempts;
+    }
+
+    public void finished() {
+        event.deliveryFinished();
+    }
+
+    public void failed() {
+        event.deliveryFailed();
     }
 }
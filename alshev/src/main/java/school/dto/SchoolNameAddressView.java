@@ -0,0 +1,7 @@
+package school.dto;
+
+public interface SchoolNameAddressView {
+    String getName();
+
+    String getAddress();
+}
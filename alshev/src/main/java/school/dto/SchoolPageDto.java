@@ -0,0 +1,15 @@
+package school.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SchoolPageDto {
+    private List<SchoolEntityDTO> items;
+    private boolean hasNext;
+    private boolean hasPrevious;
+    private Long nextAfter;
+    private Long previousBefore;
+    private Long estimatedTotal;
+}
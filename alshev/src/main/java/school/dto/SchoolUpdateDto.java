@@ -1,10 +1,12 @@
 package school.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class SchoolUpdateDto {
     private long schoolId;
     private String newName;
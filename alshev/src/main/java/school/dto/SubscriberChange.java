@@ -0,0 +1,16 @@
+package school.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import school.enums.SubscriberChangeType;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriberChange {
+    private SubscriberChangeType type;
+    private Long subscriberId;
+    private SubscriberDto subscriber;
+    private String origin;
+}
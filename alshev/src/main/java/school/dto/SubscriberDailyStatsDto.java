@@ -0,0 +1,19 @@
+package school.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriberDailyStatsDto {
+    private LocalDate day;
+    private Long subscriberId;
+    private long attempts;
+    private long failures;
+    private double averageDurationMs;
+    private long maxDurationMs;
+}
@@ -0,0 +1,16 @@
+package school.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriberDeliveryStatsDto {
+    private Long subscriberId;
+    private long attempts;
+    private long failures;
+    private double averageDurationMs;
+    private long maxDurationMs;
+}
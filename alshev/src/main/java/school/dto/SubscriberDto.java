@@ -1,7 +1,10 @@
 package school.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Data;
 
 @Data
@@ -17,5 +20,19 @@ public class SubscriberDto {
     private String eventType;
     @NotBlank(message = "URL cannot be blank")
     private String url;
+    @Min(value = 1, message = "Batch size must be positive")
+    private Integer batchSize;
+    @Min(value = 0, message = "Batch linger must not be negative")
+    private Long batchLingerMs;
+    /** Deliveries per second; 0 removes the limit. */
+    @PositiveOrZero(message = "Rate limit must not be negative")
+    private Double rateLimitPerSecond;
+    @Min(value = 1, message = "Rate limit burst must be positive")
+    private Integer rateLimitBurst;
+
+    @JsonIgnore
+    public boolean isBatching() {
+        return batchSize != null && batchSize > 1;
+    }
 
 }
@@ -0,0 +1,18 @@
+package school.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import school.enums.CircuitState;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriberHealthDto {
+    private Long subscriberId;
+    private CircuitState state;
+    private double failureRate;
+    private double slowCallRate;
+    private double healthScore;
+    private int deferredDeliveries;
+}
@@ -0,0 +1,29 @@
+package school.dto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * JSON body of a webhook, rendered once per event and shared by every subscriber and retry. The
+ * bytes never leave this class, so they cannot change after rendering.
+ */
+public final class WebhookPayload {
+    private final byte[] json;
+
+    public WebhookPayload(byte[] json) {
+        this.json = json;
+    }
+
+    public int size() {
+        return json.length;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(json);
+    }
+
+    @Override
+    public String toString() {
+        return "WebhookPayload{" + json.length + " bytes}";
+    }
+}
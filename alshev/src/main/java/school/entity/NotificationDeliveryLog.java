@@ -0,0 +1,45 @@
+package school.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "notification_delivery_log")
+public class NotificationDeliveryLog {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "school_id")
+    private Long schoolId;
+
+    @Column(name = "subscriber_id", nullable = false)
+    private Long subscriberId;
+
+    @Column(name = "event_type", nullable = false, length = 20)
+    private String eventType;
+
+    @Column(name = "attempt", nullable = false)
+    private int attempt;
+
+    @Column(name = "http_status")
+    private Integer httpStatus;
+
+    @Column(name = "duration_ms", nullable = false)
+    private long durationMs;
+
+    @Column(name = "success", nullable = false)
+    private boolean success;
+
+    @Column(name = "error", length = 500)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
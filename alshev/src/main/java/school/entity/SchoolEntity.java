@@ -9,13 +9,18 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "school")
+@Table(name = "school", uniqueConstraints = @UniqueConstraint(
+        name = SchoolEntity.NAME_ADDRESS_CONSTRAINT,
+        columnNames = {"name", "address"}
+))
 @Data
 @EntityListeners(AuditingEntityListener.class)
 public class SchoolEntity {
+    public static final String NAME_ADDRESS_CONSTRAINT = "UK_school_name_address";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "school_seq")
+    @SequenceGenerator(name = "school_seq", sequenceName = "school_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 100)
@@ -25,4 +25,16 @@ public class SubscriberEntity {
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    @Column(name = "batch_size")
+    private Integer batchSize;
+
+    @Column(name = "batch_linger_ms")
+    private Long batchLingerMs;
+
+    @Column(name = "rate_limit_per_second")
+    private Double rateLimitPerSecond;
+
+    @Column(name = "rate_limit_burst")
+    private Integer rateLimitBurst;
+
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package school.enums;
+
+public enum SubscriberChangeType {
+    UPSERT,
+    REMOVE
+}
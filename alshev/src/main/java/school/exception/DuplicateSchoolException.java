@@ -4,5 +4,9 @@ public class DuplicateSchoolException extends SchoolBaseException {
     public DuplicateSchoolException(String message) {
         super(message);
     }
+
+    public DuplicateSchoolException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
 
@@ -1,11 +1,22 @@
 package school.exception;
 
 public class NotificationSendingException extends RuntimeException {
+    private final Integer statusCode;
+
     public NotificationSendingException(String message) {
-        super(message);
+        this(message, null, null);
     }
 
     public NotificationSendingException(String message, Throwable cause) {
+        this(message, null, cause);
+    }
+
+    public NotificationSendingException(String message, Integer statusCode, Throwable cause) {
         super(message, cause);
+        this.statusCode = statusCode;
+    }
+
+    public Integer getStatusCode() {
+        return statusCode;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+package school.exception;
+
+public class SubscriberChangeBusException extends RuntimeException {
+    public SubscriberChangeBusException(String message) {
+        super(message);
+    }
+
+    public SubscriberChangeBusException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,10 @@
+package school.mapper;
+
+import org.mapstruct.Mapper;
+import school.dto.DeliveryAttemptDto;
+import school.entity.NotificationDeliveryLog;
+
+@Mapper(componentModel = "spring")
+public interface DeliveryAttemptMapper {
+    DeliveryAttemptDto toDto(NotificationDeliveryLog entity);
+}
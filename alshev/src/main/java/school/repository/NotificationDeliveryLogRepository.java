@@ -0,0 +1,19 @@
+package school.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import school.dto.SubscriberDeliveryStatsDto;
+import school.entity.NotificationDeliveryLog;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NotificationDeliveryLogRepository extends JpaRepository<NotificationDeliveryLog, Long>,
+        JpaSpecificationExecutor<NotificationDeliveryLog> {
+    @Query("select new school.dto.SubscriberDeliveryStatsDto(l.subscriberId, count(l), " +
+            "sum(case when l.success = false then 1L else 0L end), avg(l.durationMs), max(l.durationMs)) " +
+            "from NotificationDeliveryLog l where l.createdAt >= :since group by l.subscriberId")
+    List<SubscriberDeliveryStatsDto> summarizeBySubscriber(@Param("since") LocalDateTime since);
+}
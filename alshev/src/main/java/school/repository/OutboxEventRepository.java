@@ -0,0 +1,62 @@
+package school.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import school.entity.OutboxEventEntity;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, Long> {
+    // UPDATE rows are held back until updatesBefore so later updates to the school can merge into them.
+    // Rows are taken by created_at: ids come from a pooled sequence, so on several nodes a later row can get a lower id.
+    // A row waits while an older row of its school is leased, in flight or released, so a released
+    // event is delivered again before anything that came after it.
+    // The lease check only sees committed leases, and SKIP LOCKED passes over rows another node is
+    // claiming right now. So a row is only kept if every older row of its school was claimed with it;
+    // the rows dropped here stay locked until the claim commits and are taken by a later poll.
+    @Query(value = "WITH claimed AS MATERIALIZED (SELECT e.* FROM school_outbox e " +
+            "WHERE (e.locked_until IS NULL OR e.locked_until < :now) AND e.failed_at IS NULL " +
+            "AND (e.event_type <> 'UPDATE' OR e.created_at < :updatesBefore) " +
+            "AND NOT EXISTS (SELECT 1 FROM school_outbox older " +
+            "WHERE older.school_id = e.school_id AND older.failed_at IS NULL AND older.locked_until >= :now " +
+            "AND (older.created_at, older.id) < (e.created_at, e.id)) " +
+            "ORDER BY e.created_at, e.id " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED) " +
+            "SELECT c.* FROM claimed c " +
+            "WHERE NOT EXISTS (SELECT 1 FROM school_outbox older " +
+            "WHERE older.school_id = c.school_id AND older.failed_at IS NULL " +
+            "AND (older.created_at, older.id) < (c.created_at, c.id) " +
+            "AND older.id NOT IN (SELECT id FROM claimed)) " +
+            "ORDER BY c.created_at, c.id", nativeQuery = true)
+    List<OutboxEventEntity> lockNextBatch(
+            @Param("now") LocalDateTime now,
+            @Param("updatesBefore") LocalDateTime updatesBefore,
+            @Param("limit") int limit
+    );
+
+    @Query(value = "SELECT * FROM school_outbox " +
+            "WHERE school_id = :schoolId AND event_type = 'UPDATE' AND locked_until IS NULL " +
+            "ORDER BY id DESC " +
+            "LIMIT 1 " +
+            "FOR UPDATE", nativeQuery = true)
+    Optional<OutboxEventEntity> lockPendingUpdate(@Param("schoolId") Long schoolId);
+
+    @Modifying
+    @Query(value = "DELETE FROM school_outbox " +
+            "WHERE school_id = :schoolId AND event_type = 'UPDATE' AND locked_until IS NULL", nativeQuery = true)
+    int deletePendingUpdates(@Param("schoolId") Long schoolId);
+
+    @Modifying
+    @Query("update OutboxEventEntity e set e.lockedUntil = :lockedUntil where e.id in :ids")
+    int extendLeases(@Param("ids") Collection<Long> ids, @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    @Modifying
+    @Query("update OutboxEventEntity e set e.failedAt = :failedAt, e.error = :error where e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("failedAt") LocalDateTime failedAt, @Param("error") String error);
+}
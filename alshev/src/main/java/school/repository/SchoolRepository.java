@@ -1,8 +1,38 @@
 package school.repository;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import school.dto.SchoolNameAddressView;
 import school.entity.SchoolEntity;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 public interface SchoolRepository extends JpaRepository<SchoolEntity, Long> {
     boolean existsByNameAndAddress(String name, String address);
+
+    List<SchoolEntity> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<SchoolEntity> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
+
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST('school' AS regclass)", nativeQuery = true)
+    Long estimateCount();
+
+    @Query("select s.name as name, s.address as address from SchoolEntity s")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<SchoolNameAddressView> streamNamesAndAddresses();
+
+    @Query("select s.name as name, s.address as address from SchoolEntity s where s.name in :names")
+    List<SchoolNameAddressView> findNamesAndAddressesByNameIn(@Param("names") Collection<String> names);
 }
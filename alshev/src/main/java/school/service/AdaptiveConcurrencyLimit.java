@@ -0,0 +1,71 @@
+package school.service;
+
+/**
+ * AIMD concurrency limit for one subscriber. Every delivery that completes within
+ * {@code latencyTolerance} times the endpoint's baseline latency while the limit was in use grows
+ * the limit by about one per round of deliveries; an overload response, or a latency above that,
+ * multiplies it by {@code backoffRatio}, at most once per round so a burst of failures started
+ * under the old limit counts once. The baseline follows drops in latency at once and rises slowly,
+ * so it tracks the endpoint unloaded rather than its current queueing.
+ */
+public class AdaptiveConcurrencyLimit {
+    private static final double BASELINE_RISE = 0.01;
+    // Keeps millisecond noise on very fast endpoints from reading as queueing.
+    private static final long MIN_SLOWDOWN_MS = 10;
+
+    private final Settings settings;
+    private double limit;
+    private volatile int currentLimit;
+    private double baselineMs = -1;
+    private long lastDecreaseNanos = System.nanoTime();
+
+    public AdaptiveConcurrencyLimit(Settings settings) {
+        this.settings = settings;
+        this.limit = settings.initialLimit;
+        this.currentLimit = settings.initialLimit;
+    }
+
+    public int getLimit() {
+        return currentLimit;
+    }
+
+    public synchronized void onSample(long startNanos, long latencyMs, int inFlight, boolean overloaded) {
+        if (!settings.enabled) {
+            return;
+        }
+        if (!overloaded) {
+            baselineMs = baselineMs < 0 || latencyMs < baselineMs
+                    ? latencyMs
+                    : baselineMs + (latencyMs - baselineMs) * BASELINE_RISE;
+        }
+        boolean slow = latencyMs > baselineMs * settings.latencyTolerance && latencyMs - baselineMs > MIN_SLOWDOWN_MS;
+        if (overloaded || slow) {
+            if (startNanos - lastDecreaseNanos > 0) {
+                limit = Math.max(settings.minLimit, limit * settings.backoffRatio);
+                lastDecreaseNanos = System.nanoTime();
+            }
+        } else if (inFlight * 2 >= currentLimit) {
+            limit = Math.min(settings.maxLimit, limit + 1 / limit);
+        }
+        currentLimit = (int) limit;
+    }
+
+    public static class Settings {
+        private final boolean enabled;
+        private final int initialLimit;
+        private final int minLimit;
+        private final int maxLimit;
+        private final double latencyTolerance;
+        private final double backoffRatio;
+
+        public Settings(boolean enabled, int initialLimit, int minLimit, int maxLimit,
+                        double latencyTolerance, double backoffRatio) {
+            this.enabled = enabled;
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.latencyTolerance = latencyTolerance;
+            this.backoffRatio = backoffRatio;
+        }
+    }
+}
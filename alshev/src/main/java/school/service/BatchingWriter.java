@@ -0,0 +1,141 @@
+package school.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers items and hands them to {@link #writeBatch} from a single background thread, flushing
+ * when a batch fills up or the flush interval passes. A full buffer blocks the caller; once the
+ * writer is shut down, items are written synchronously. Shutdown drains the buffer. A batch that
+ * throws is handed to {@link #batchFailed} instead.
+ */
+@Slf4j
+public abstract class BatchingWriter<T> {
+    private final BlockingQueue<T> buffer;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final Thread writerThread;
+    private final NotificationMetrics metrics;
+    private volatile boolean running = true;
+
+    protected BatchingWriter(
+            String threadName,
+            NotificationMetrics metrics,
+            int bufferCapacity,
+            int batchSize,
+            long flushIntervalMs
+    ) {
+        this.metrics = metrics;
+        this.buffer = new LinkedBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.writerThread = new Thread(this::run, threadName);
+        this.writerThread.setDaemon(true);
+    }
+
+    protected abstract void writeBatch(List<T> batch);
+
+    /** Called when {@link #writeBatch} threw; none of the batch can be assumed written. */
+    protected void batchFailed(List<T> batch) {
+    }
+
+    @PostConstruct
+    public void start() {
+        metrics.registerGauge(
+                "notification.persist.buffered",
+                "Items waiting in a background writer buffer",
+                buffer::size,
+                "writer", writerThread.getName()
+        );
+        writerThread.start();
+    }
+
+    protected void add(T item) {
+        if (running) {
+            try {
+                buffer.put(item);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<T> batch = new ArrayList<>(1);
+        batch.add(item);
+        flush(batch);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        List<T> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        while (!remaining.isEmpty()) {
+            List<T> batch = remaining.subList(0, Math.min(batchSize, remaining.size()));
+            flush(new ArrayList<>(batch));
+            batch.clear();
+        }
+        log.info("{} stopped", writerThread.getName());
+    }
+
+    private void run() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                T first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remainingNanos <= 0) {
+                        break;
+                    }
+                    T next = buffer.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (running) {
+                    continue;
+                }
+            } finally {
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+    }
+
+    private void flush(List<T> batch) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            writeBatch(batch);
+            success = true;
+        } catch (RuntimeException e) {
+            log.error("{} failed to write {} items", writerThread.getName(), batch.size(), e);
+            try {
+                batchFailed(batch);
+            } catch (RuntimeException failure) {
+                log.error("{} failed to release {} items", writerThread.getName(), batch.size(), failure);
+            }
+        } finally {
+            metrics.batchWritten(writerThread.getName(), batch.size(), System.nanoTime() - start, success);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package school.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import school.dto.SubscriberHealthDto;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Component
+public class CircuitBreakerRegistry {
+    private final TaskScheduler scheduler;
+    private final SubscriberCircuitBreaker.Settings settings;
+    private final ConcurrentHashMap<Long, SubscriberCircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CircuitBreakerRegistry(
+            @Qualifier("retryScheduler") TaskScheduler scheduler,
+            @Value("${notification.circuit.window-size:20}") int windowSize,
+            @Value("${notification.circuit.minimum-calls:5}") int minimumCalls,
+            @Value("${notification.circuit.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${notification.circuit.slow-call-threshold-ms:3000}") long slowCallThresholdMs,
+            @Value("${notification.circuit.slow-call-rate-threshold:0.8}") double slowCallRateThreshold,
+            @Value("${notification.circuit.open-duration-ms:30000}") long openDurationMs
+    ) {
+        this.scheduler = scheduler;
+        this.settings = new SubscriberCircuitBreaker.Settings(
+                windowSize,
+                minimumCalls,
+                failureRateThreshold,
+                slowCallThresholdMs,
+                slowCallRateThreshold,
+                openDurationMs
+        );
+    }
+
+    public SubscriberCircuitBreaker forSubscriber(Long subscriberId) {
+        return breakers.computeIfAbsent(subscriberId, id -> new SubscriberCircuitBreaker(id, settings, scheduler));
+    }
+
+    /** Drops the subscriber's breaker and returns the deliveries it had parked. */
+    public List<Runnable> remove(Long subscriberId) {
+        SubscriberCircuitBreaker breaker = breakers.remove(subscriberId);
+        return breaker != null ? breaker.drainDeferred() : Collections.emptyList();
+    }
+
+    public List<SubscriberHealthDto> getHealth() {
+        return breakers.values().stream()
+                .map(SubscriberCircuitBreaker::getHealth)
+                .sorted(Comparator.comparing(SubscriberHealthDto::getHealthScore))
+                .collect(Collectors.toList());
+    }
+}
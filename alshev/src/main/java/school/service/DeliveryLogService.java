@@ -0,0 +1,177 @@
+package school.service;
+
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import school.dto.DeliveryAttemptFilter;
+import school.dto.DeliveryAttemptPageDto;
+import school.dto.NotificationTask;
+import school.dto.SubscriberDailyStatsDto;
+import school.dto.SubscriberDeliveryStatsDto;
+import school.entity.NotificationDeliveryLog;
+import school.exception.NotificationSendingException;
+import school.mapper.DeliveryAttemptMapper;
+import school.repository.NotificationDeliveryLogRepository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class DeliveryLogService {
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final DeliveryLogWriter deliveryLogWriter;
+    private final NotificationDeliveryLogRepository deliveryLogRepository;
+    private final DeliveryAttemptMapper deliveryAttemptMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public DeliveryLogService(
+            DeliveryLogWriter deliveryLogWriter,
+            NotificationDeliveryLogRepository deliveryLogRepository,
+            DeliveryAttemptMapper deliveryAttemptMapper,
+            JdbcTemplate jdbcTemplate
+    ) {
+        this.deliveryLogWriter = deliveryLogWriter;
+        this.deliveryLogRepository = deliveryLogRepository;
+        this.deliveryAttemptMapper = deliveryAttemptMapper;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void recordSuccess(NotificationTask task, int attempt, int httpStatus, long durationMs) {
+        deliveryLogWriter.write(attemptOf(task, attempt, httpStatus, durationMs, true, null));
+    }
+
+    public void recordFailure(NotificationTask task, int attempt, long durationMs, RuntimeException error) {
+        deliveryLogWriter.write(attemptOf(task, attempt, statusCodeOf(error), durationMs, false, messageOf(error)));
+    }
+
+    @Transactional(readOnly = true)
+    public DeliveryAttemptPageDto findAttempts(DeliveryAttemptFilter filter, Long before, int size) {
+        Specification<NotificationDeliveryLog> spec = matching(filter, before);
+        List<NotificationDeliveryLog> rows = new ArrayList<>(deliveryLogRepository.findBy(spec, query -> query
+                .sortBy(Sort.by(Sort.Direction.DESC, "id"))
+                .limit(size + 1)
+                .all()));
+        boolean more = rows.size() > size;
+        if (more) {
+            rows = rows.subList(0, size);
+        }
+
+        DeliveryAttemptPageDto page = new DeliveryAttemptPageDto();
+        page.setItems(rows.stream()
+                .map(deliveryAttemptMapper::toDto)
+                .collect(Collectors.toList()));
+        page.setHasNext(more);
+        if (more) {
+            page.setNextBefore(rows.get(rows.size() - 1).getId());
+        }
+        return page;
+    }
+
+    @Transactional(readOnly = true)
+    public List<SubscriberDeliveryStatsDto> summarizeSubscribers(LocalDateTime since) {
+        List<SubscriberDeliveryStatsDto> stats = new ArrayList<>(deliveryLogRepository.summarizeBySubscriber(since));
+        stats.sort(Comparator.comparingDouble((SubscriberDeliveryStatsDto s) -> (double) s.getFailures() / s.getAttempts())
+                .thenComparingDouble(SubscriberDeliveryStatsDto::getAverageDurationMs)
+                .reversed());
+        return stats;
+    }
+
+    // Only days already rolled up by NotificationHistoryRetention, i.e. older than the retention period.
+    public List<SubscriberDailyStatsDto> findDailyStats(Long subscriberId, LocalDate from) {
+        return jdbcTemplate.query(
+                "SELECT day, subscriber_id, attempts, failures, total_duration_ms, max_duration_ms " +
+                        "FROM notification_delivery_daily WHERE subscriber_id = ? AND day >= ? ORDER BY day",
+                (rs, rowNum) -> new SubscriberDailyStatsDto(
+                        rs.getDate("day").toLocalDate(),
+                        rs.getLong("subscriber_id"),
+                        rs.getLong("attempts"),
+                        rs.getLong("failures"),
+                        rs.getLong("attempts") == 0 ? 0 : rs.getLong("total_duration_ms") / (double) rs.getLong("attempts"),
+                        rs.getLong("max_duration_ms")
+                ),
+                subscriberId,
+                Date.valueOf(from)
+        );
+    }
+
+    private static Specification<NotificationDeliveryLog> matching(DeliveryAttemptFilter filter, Long before) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (before != null) {
+                predicates.add(cb.lessThan(root.get("id"), before));
+            }
+            if (filter.getSubscriberId() != null) {
+                predicates.add(cb.equal(root.get("subscriberId"), filter.getSubscriberId()));
+            }
+            if (filter.getSchoolId() != null) {
+                predicates.add(cb.equal(root.get("schoolId"), filter.getSchoolId()));
+            }
+            if (filter.getEventId() != null) {
+                predicates.add(cb.equal(root.get("eventId"), filter.getEventId()));
+            }
+            if (filter.getSuccess() != null) {
+                predicates.add(cb.equal(root.get("success"), filter.getSuccess()));
+            }
+            if (filter.getMinDurationMs() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("durationMs"), filter.getMinDurationMs()));
+            }
+            if (filter.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filter.getFrom()));
+            }
+            if (filter.getTo() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), filter.getTo()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static NotificationDeliveryLog attemptOf(
+            NotificationTask task,
+            int attempt,
+            Integer httpStatus,
+            long durationMs,
+            boolean success,
+            String error
+    ) {
+        NotificationDeliveryLog entry = new NotificationDeliveryLog();
+        entry.setEventId(task.getEventId());
+        entry.setSchoolId(task.getSchoolId());
+        entry.setSubscriberId(task.getSubscriberDto().getId());
+        entry.setEventType(task.getType().name());
+        entry.setAttempt(attempt);
+        entry.setHttpStatus(httpStatus);
+        entry.setDurationMs(durationMs);
+        entry.setSuccess(success);
+        entry.setError(error);
+        entry.setCreatedAt(LocalDateTime.now());
+        return entry;
+    }
+
+    private static Integer statusCodeOf(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NotificationSendingException) {
+                return ((NotificationSendingException) cause).getStatusCode();
+            }
+        }
+        return null;
+    }
+
+    private static String messageOf(Throwable error) {
+        while (error.getCause() != null && error.getCause() != error) {
+            error = error.getCause();
+        }
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -0,0 +1,52 @@
+package school.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import school.entity.NotificationDeliveryLog;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+@Component
+public class DeliveryLogWriter extends BatchingWriter<NotificationDeliveryLog> {
+    private static final String INSERT_SQL = "INSERT INTO notification_delivery_log " +
+            "(event_id, school_id, subscriber_id, event_type, attempt, http_status, duration_ms, success, error, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public DeliveryLogWriter(
+            JdbcTemplate jdbcTemplate,
+            NotificationMetrics metrics,
+            @Value("${notification.delivery-log.buffer-capacity:50000}") int bufferCapacity,
+            @Value("${notification.delivery-log.batch-size:500}") int batchSize,
+            @Value("${notification.delivery-log.flush-interval-ms:500}") long flushIntervalMs
+    ) {
+        super("delivery-log-writer", metrics, bufferCapacity, batchSize, flushIntervalMs);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void write(NotificationDeliveryLog attempt) {
+        add(attempt);
+    }
+
+    @Override
+    protected void writeBatch(List<NotificationDeliveryLog> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, attempt) -> {
+            ps.setObject(1, attempt.getEventId(), Types.BIGINT);
+            ps.setObject(2, attempt.getSchoolId(), Types.BIGINT);
+            ps.setLong(3, attempt.getSubscriberId());
+            ps.setString(4, attempt.getEventType());
+            ps.setInt(5, attempt.getAttempt());
+            ps.setObject(6, attempt.getHttpStatus(), Types.INTEGER);
+            ps.setLong(7, attempt.getDurationMs());
+            ps.setBoolean(8, attempt.isSuccess());
+            ps.setString(9, attempt.getError());
+            ps.setTimestamp(10, Timestamp.valueOf(attempt.getCreatedAt()));
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package school.service;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps deliveries to a subscriber about the same school in order. A delivery is started only
+ * after the previous one for that subscriber and school has been released, which the dispatcher
+ * does once it has finished, retries included. A null school id orders the subscriber's batches
+ * among themselves, since a batch covers many schools.
+ */
+public class DeliverySequencer {
+    private final Map<Key, Queue<Runnable>> waiting = new ConcurrentHashMap<>();
+
+    public void submit(Long subscriberId, Long schoolId, Runnable start) {
+        boolean[] startNow = {false};
+        waiting.compute(new Key(subscriberId, schoolId), (key, queue) -> {
+            if (queue == null) {
+                startNow[0] = true;
+                return new ArrayDeque<>();
+            }
+            queue.add(start);
+            return queue;
+        });
+        if (startNow[0]) {
+            start(subscriberId, schoolId, start);
+        }
+    }
+
+    public void release(Long subscriberId, Long schoolId) {
+        Runnable[] next = {null};
+        waiting.computeIfPresent(new Key(subscriberId, schoolId), (key, queue) -> {
+            next[0] = queue.poll();
+            return next[0] == null ? null : queue;
+        });
+        if (next[0] != null) {
+            start(subscriberId, schoolId, next[0]);
+        }
+    }
+
+    // A delivery that fails to start will never release its key, so it is released here.
+    private void start(Long subscriberId, Long schoolId, Runnable start) {
+        try {
+            start.run();
+        } catch (RuntimeException e) {
+            release(subscriberId, schoolId);
+            throw e;
+        }
+    }
+
+    public int getWaitingCount() {
+        return waiting.values().stream().mapToInt(Queue::size).sum();
+    }
+
+    private static final class Key {
+        private final Long subscriberId;
+        private final Long schoolId;
+
+        private Key(Long subscriberId, Long schoolId) {
+            this.subscriberId = subscriberId;
+            this.schoolId = schoolId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return subscriberId.equals(other.subscriberId) && Objects.equals(schoolId, other.schoolId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * subscriberId.hashCode() + Objects.hashCode(schoolId);
+        }
+    }
+}
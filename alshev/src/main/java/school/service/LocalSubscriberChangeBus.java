@@ -0,0 +1,51 @@
+package school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import school.dto.SubscriberChange;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process stand-in for {@link PostgresSubscriberChangeBus}, for tests and single-node runs.
+ * Several registries subscribed to one instance behave like nodes sharing a database.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "notification.registry.bus", havingValue = "local")
+public class LocalSubscriberChangeBus implements SubscriberChangeBus {
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(SubscriberChange change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(change);
+                }
+            });
+        } else {
+            deliver(change);
+        }
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    private void deliver(SubscriberChange change) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onChange(change);
+            } catch (RuntimeException e) {
+                log.error("Failed to apply {}", change, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Keeps notification history bounded. notification_delivery_log is partitioned by day: partitions
+ * are created a few days ahead, and once a day is past the retention period its partition is
+ * rolled up into notification_delivery_daily and then dropped (or detached for archiving), so
+ * expiry never deletes row by row. notification_status is not partitioned; it is purged with
+ * DELETE in small batches. Both take the same advisory lock, so only one node at a time maintains
+ * partitions or purges statuses.
+ */
+@Slf4j
+@Component
+public class NotificationHistoryRetention {
+    private static final String PARENT_TABLE = "notification_delivery_log";
+    private static final String DEFAULT_PARTITION = PARENT_TABLE + "_default";
+    private static final String PARTITION_PREFIX = PARENT_TABLE + "_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final long ADVISORY_LOCK_KEY = 0x5c400017L;
+
+    private static final String LIST_PARTITIONS_SQL = "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ?";
+    private static final String ROLLUP_SQL = "INSERT INTO notification_delivery_daily " +
+            "(day, subscriber_id, attempts, failures, total_duration_ms, max_duration_ms) " +
+            "SELECT CAST(created_at AS date), subscriber_id, count(*), count(*) FILTER (WHERE NOT success), " +
+            "sum(duration_ms), max(duration_ms) FROM %s WHERE created_at < ? " +
+            "GROUP BY CAST(created_at AS date), subscriber_id " +
+            "ON CONFLICT (day, subscriber_id) DO UPDATE SET " +
+            "attempts = notification_delivery_daily.attempts + EXCLUDED.attempts, " +
+            "failures = notification_delivery_daily.failures + EXCLUDED.failures, " +
+            "total_duration_ms = notification_delivery_daily.total_duration_ms + EXCLUDED.total_duration_ms, " +
+            "max_duration_ms = GREATEST(notification_delivery_daily.max_duration_ms, EXCLUDED.max_duration_ms)";
+    private static final String PURGE_STATUS_SQL = "DELETE FROM notification_status WHERE id IN " +
+            "(SELECT id FROM notification_status WHERE created_at < ? LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+    private final int partitionsAhead;
+    private final boolean detachExpired;
+    private final int statusPurgeBatchSize;
+
+    @Autowired
+    public NotificationHistoryRetention(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${notification.history.retention-days:30}") int retentionDays,
+            @Value("${notification.history.partitions-ahead:3}") int partitionsAhead,
+            @Value("${notification.history.detach-expired:false}") boolean detachExpired,
+            @Value("${notification.history.status-purge-batch-size:10000}") int statusPurgeBatchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionDays = retentionDays;
+        this.partitionsAhead = partitionsAhead;
+        this.detachExpired = detachExpired;
+        this.statusPurgeBatchSize = statusPurgeBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepare() {
+        try {
+            maintainPartitions(false);
+        } catch (DataAccessException e) {
+            log.warn("Could not prepare notification history partitions", e);
+        }
+    }
+
+    @Scheduled(cron = "${notification.history.retention-cron:0 15 3 * * *}")
+    public void applyRetention() {
+        maintainPartitions(true);
+        purgeStatuses(LocalDate.now().minusDays(retentionDays));
+    }
+
+    private void maintainPartitions(boolean expire) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!tryLock()) {
+                log.debug("Notification history maintenance is running on another node");
+                return;
+            }
+
+            LocalDate today = LocalDate.now();
+            for (int i = 0; i <= partitionsAhead; i++) {
+                createPartition(today.plusDays(i));
+            }
+            if (expire) {
+                expirePartitions(today.minusDays(retentionDays));
+            }
+        });
+    }
+
+    // Rows that already landed in the default partition for this day are moved before attaching,
+    // otherwise Postgres refuses to create the partition.
+    private void createPartition(LocalDate day) {
+        String partition = PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition))) {
+            return;
+        }
+        Timestamp from = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + PARENT_TABLE + " INCLUDING DEFAULTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                " WHERE created_at >= ? AND created_at < ? RETURNING *) INSERT INTO " + partition + " SELECT * FROM moved", from, to);
+        jdbcTemplate.execute(String.format(
+                "ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+                PARENT_TABLE, partition, day, day.plusDays(1)
+        ));
+        log.info("Created notification history partition {} ({} rows moved from default)", partition, moved);
+    }
+
+    private void expirePartitions(LocalDate cutoff) {
+        Timestamp cutoffTime = Timestamp.valueOf(cutoff.atStartOfDay());
+        List<String> partitions = jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class, PARENT_TABLE);
+        for (String partition : partitions) {
+            if (partition.equals(DEFAULT_PARTITION)) {
+                int rolledUp = jdbcTemplate.update(String.format(ROLLUP_SQL, DEFAULT_PARTITION), cutoffTime);
+                int deleted = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE created_at < ?", cutoffTime);
+                if (deleted > 0) {
+                    log.info("Rolled up {} subscriber-days and deleted {} expired rows from {}", rolledUp, deleted, DEFAULT_PARTITION);
+                }
+                continue;
+            }
+
+            LocalDate day = dayOf(partition);
+            if (day == null || !day.isBefore(cutoff)) {
+                continue;
+            }
+            jdbcTemplate.update(String.format(ROLLUP_SQL, partition), cutoffTime);
+            if (detachExpired) {
+                jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partition);
+                log.info("Rolled up and detached notification history partition {}", partition);
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                log.info("Rolled up and dropped notification history partition {}", partition);
+            }
+        }
+    }
+
+    private void purgeStatuses(LocalDate cutoff) {
+        Timestamp cutoffTime = Timestamp.valueOf(cutoff.atStartOfDay());
+        long total = 0;
+        int deleted;
+        do {
+            // Each batch is its own short transaction holding the lock.
+            Integer batch = transactionTemplate.execute(status -> tryLock()
+                    ? jdbcTemplate.update(PURGE_STATUS_SQL, cutoffTime, statusPurgeBatchSize)
+                    : null);
+            if (batch == null) {
+                log.debug("Notification status purge is running on another node");
+                break;
+            }
+            deleted = batch;
+            total += deleted;
+        } while (deleted == statusPurgeBatchSize);
+        if (total > 0) {
+            log.info("Purged {} notification statuses older than {}", total, cutoff);
+        }
+    }
+
+    // Released when the surrounding transaction ends.
+    private boolean tryLock() {
+        return Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY));
+    }
+
+    private static LocalDate dayOf(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package school.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import school.enums.NotificationType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the notification pipeline. Timers publish p50/p99 and a histogram so percentiles can
+ * also be aggregated across instances in Prometheus. The one timer tagged by subscriber publishes
+ * only p50/p99, so it costs a few series per subscriber rather than a histogram's worth. Meters
+ * tagged by subscriber are bounded by the number of subscribers and dropped when one is removed.
+ * Meters are registered once per name and tag values and looked up from a map afterwards.
+ */
+@Component
+public class NotificationMetrics {
+    private static final double[] PERCENTILES = {0.5, 0.99};
+    private static final String RETRIES = "notification.retries";
+    private static final String DELIVERIES = "notification.deliveries";
+    private static final String SUBSCRIBER_HTTP_SEND = "notification.http.send.subscriber";
+    private static final Set<String> SUBSCRIBER_METERS = Set.of(RETRIES, DELIVERIES, SUBSCRIBER_HTTP_SEND);
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<List<Object>, Object> meters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public NotificationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void registerGauge(String name, String description, Supplier<Number> value, String... tags) {
+        Gauge.builder(name, value)
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    public void removeGauge(String name, String... tags) {
+        Gauge gauge = registry.find(name).tags(tags).gauge();
+        if (gauge != null) {
+            registry.remove(gauge);
+        }
+    }
+
+    public void eventEnqueued(NotificationType type) {
+        this.<Counter>meter(() -> Counter.builder("notification.events.enqueued")
+                .tag("event_type", type.name())
+                .register(registry), "notification.events.enqueued", type)
+                .increment();
+    }
+
+    public void updatesCoalesced(String outcome, int updates) {
+        this.<Counter>meter(() -> Counter.builder("notification.updates.coalesced")
+                .description("Update events merged into a pending update or cancelled by a delete")
+                .tag("outcome", outcome)
+                .register(registry), "notification.updates.coalesced", outcome)
+                .increment(updates);
+    }
+
+    public void eventDispatched(NotificationType type, long lagNanos, int subscribers) {
+        this.<Timer>meter(() -> timer("notification.dispatch.lag", "Time from enqueue to fan-out")
+                .tag("event_type", type.name())
+                .register(registry), "notification.dispatch.lag", type)
+                .record(lagNanos, TimeUnit.NANOSECONDS);
+        this.<DistributionSummary>meter(() -> DistributionSummary.builder("notification.dispatch.fanout")
+                .tag("event_type", type.name())
+                .register(registry), "notification.dispatch.fanout", type)
+                .record(subscribers);
+    }
+
+    public void deliveryAttempted(NotificationType type, boolean success, long durationMs) {
+        String outcome = success ? "success" : "failure";
+        this.<Timer>meter(() -> timer("notification.http.send", "Webhook HTTP call duration")
+                .tag("event_type", type.name())
+                .tag("outcome", outcome)
+                .register(registry), "notification.http.send", type, outcome)
+                .record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void subscriberCallTimed(Long subscriberId, boolean success, long durationMs) {
+        String outcome = success ? "success" : "failure";
+        this.<Timer>meter(() -> Timer.builder(SUBSCRIBER_HTTP_SEND)
+                .description("Webhook HTTP call duration per subscriber")
+                .publishPercentiles(PERCENTILES)
+                .tag("subscriber", String.valueOf(subscriberId))
+                .tag("outcome", outcome)
+                .register(registry), SUBSCRIBER_HTTP_SEND, subscriberId, outcome)
+                .record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void retryScheduled(Long subscriberId) {
+        this.<Counter>meter(() -> Counter.builder(RETRIES)
+                .tag("subscriber", String.valueOf(subscriberId))
+                .register(registry), RETRIES, subscriberId)
+                .increment();
+    }
+
+    public void deliveryFinished(Long subscriberId, NotificationType type, String outcome) {
+        this.<Counter>meter(() -> Counter.builder(DELIVERIES)
+                .tag("subscriber", String.valueOf(subscriberId))
+                .tag("event_type", type.name())
+                .tag("outcome", outcome)
+                .register(registry), DELIVERIES, subscriberId, type, outcome)
+                .increment();
+    }
+
+    /** Drops the meters tagged with a removed subscriber from the registry. */
+    public void removeSubscriber(Long subscriberId) {
+        meters.entrySet().removeIf(entry -> {
+            List<Object> key = entry.getKey();
+            if (!SUBSCRIBER_METERS.contains(key.get(0)) || !subscriberId.equals(key.get(1))) {
+                return false;
+            }
+            registry.remove((Meter) entry.getValue());
+            return true;
+        });
+    }
+
+    public void batchWritten(String writer, int size, long durationNanos, boolean success) {
+        String outcome = success ? "success" : "failure";
+        this.<Timer>meter(() -> timer("notification.persist", "Batch write duration of a background writer")
+                .tag("writer", writer)
+                .tag("outcome", outcome)
+                .register(registry), "notification.persist", writer, outcome)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        this.<DistributionSummary>meter(() -> DistributionSummary.builder("notification.persist.batch.size")
+                .tag("writer", writer)
+                .register(registry), "notification.persist.batch.size", writer)
+                .record(size);
+    }
+
+    // The key is the meter name followed by its tag values.
+    @SuppressWarnings("unchecked")
+    private <M> M meter(Supplier<M> register, Object... key) {
+        return (M) meters.computeIfAbsent(Arrays.asList(key), k -> register.get());
+    }
+
+    private static Timer.Builder timer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram();
+    }
+}
@@ -1,71 +1,40 @@
 package school.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import school.dto.NotificationTask;
-import school.dto.SubscriberDto;
 import school.entity.NotificationStatus;
 import school.enums.NotificationType;
-import school.exception.NotificationStatusPersistenceException;
-import school.exception.SubscriberNotFoundException;
-import school.repository.NotificationStatusRepository;
 
 @Service
 public class NotificationStatusService {
-    private final NotificationStatusRepository notificationStatusRepository;
+    private final NotificationStatusWriter notificationStatusWriter;
 
     @Autowired
-    public NotificationStatusService(NotificationStatusRepository notificationStatusRepository) {
-        this.notificationStatusRepository = notificationStatusRepository;
+    public NotificationStatusService(NotificationStatusWriter notificationStatusWriter) {
+        this.notificationStatusWriter = notificationStatusWriter;
     }
 
-    @Transactional
     public void saveNotificationStatus(
-            SubscriberDto subscriberDto,
-            NotificationType type,
+            NotificationTask task,
             String status,
-            int attempts
+            int attempts,
+            Runnable onSaved,
+            Runnable onFailed
     ) {
-        if (subscriberDto == null) {
-            throw new SubscriberNotFoundException("The notification status could not be saved: subscriberDto is null");
-        }
+        notificationStatusWriter.write(
+                statusOf(task.getSubscriberDto().getId(), task.getType(), status, attempts),
+                onSaved,
+                onFailed
+        );
+    }
 
+    private static NotificationStatus statusOf(Long subscriberId, NotificationType type, String status, int attempts) {
         NotificationStatus notificationStatus = new NotificationStatus();
-        notificationStatus.setSubscriberId(subscriberDto.getId());
+        notificationStatus.setSubscriberId(subscriberId);
         notificationStatus.setNotificationType(type.name());
         notificationStatus.setStatus(status);
         notificationStatus.setAttempts(attempts);
-
-        try {
-            notificationStatusRepository.save(notificationStatus);
-        } catch (DataAccessException e) {
-            throw new NotificationStatusPersistenceException("An error occurred while saving the notification status.", e);
-        } catch (RuntimeException e) {
-            throw e;
-        }
-    }
-    @Transactional
-    public void saveNotificationStatus(
-            NotificationTask task,
-            String status,
-            int attempts
-    ) {
-        boolean exists = notificationStatusRepository.existsBySubscriberIdAndNotificationTypeAndStatus(
-                task.getSubscriberDto().getId(),
-                task.getType().name(),
-                status
-        );
-
-        if (!exists) {
-            NotificationStatus notificationStatus = new NotificationStatus();
-            notificationStatus.setSubscriberId(task.getSubscriberDto().getId());
-            notificationStatus.setNotificationType(task.getType().name());
-            notificationStatus.setStatus(status);
-            notificationStatus.setAttempts(attempts);
-
-            notificationStatusRepository.save(notificationStatus);
-        }
+        return notificationStatus;
     }
-}
\ No newline at end of file
+}
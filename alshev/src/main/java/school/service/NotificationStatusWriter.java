@@ -0,0 +1,90 @@
+package school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import school.entity.NotificationStatus;
+import school.exception.NotificationStatusPersistenceException;
+
+import java.util.List;
+
+/**
+ * Writes notification statuses with JDBC batch inserts. Each status carries a callback that runs
+ * once its batch has been written, so callers can delay work that must not happen before the
+ * status is durable, and one that runs instead if the batch could not be written.
+ */
+@Slf4j
+@Component
+public class NotificationStatusWriter extends BatchingWriter<NotificationStatusWriter.PendingStatus> {
+    private static final String INSERT_SQL =
+            "INSERT INTO notification_status (notification_type, subscriber_id, status, attempts) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public NotificationStatusWriter(
+            JdbcTemplate jdbcTemplate,
+            NotificationMetrics metrics,
+            @Value("${notification.status.buffer-capacity:50000}") int bufferCapacity,
+            @Value("${notification.status.batch-size:500}") int batchSize,
+            @Value("${notification.status.flush-interval-ms:200}") long flushIntervalMs
+    ) {
+        super("notification-status-writer", metrics, bufferCapacity, batchSize, flushIntervalMs);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void write(NotificationStatus status, Runnable onWritten, Runnable onFailed) {
+        add(new PendingStatus(status, onWritten, onFailed));
+    }
+
+    @Override
+    protected void writeBatch(List<PendingStatus> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, pending) -> {
+                NotificationStatus status = pending.status;
+                ps.setString(1, status.getNotificationType());
+                ps.setLong(2, status.getSubscriberId());
+                ps.setString(3, status.getStatus());
+                ps.setInt(4, status.getAttempts());
+            });
+        } catch (DataAccessException e) {
+            throw new NotificationStatusPersistenceException("An error occurred while saving notification statuses.", e);
+        }
+        for (PendingStatus pending : batch) {
+            runCallback(pending.onWritten);
+        }
+    }
+
+    @Override
+    protected void batchFailed(List<PendingStatus> batch) {
+        for (PendingStatus pending : batch) {
+            runCallback(pending.onFailed);
+        }
+    }
+
+    private static void runCallback(Runnable callback) {
+        if (callback == null) {
+            return;
+        }
+        try {
+            callback.run();
+        } catch (RuntimeException e) {
+            log.error("Notification status callback failed", e);
+        }
+    }
+
+    static final class PendingStatus {
+        private final NotificationStatus status;
+        private final Runnable onWritten;
+        private final Runnable onFailed;
+
+        private PendingStatus(NotificationStatus status, Runnable onWritten, Runnable onFailed) {
+            this.status = status;
+            this.onWritten = onWritten;
+            this.onFailed = onFailed;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package school.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Deletes the outbox rows of events whose deliveries have all finished, one statement per batch.
+ * A row whose batch could not be deleted keeps its lease until it runs out and is then claimed
+ * and delivered again.
+ */
+@Component
+public class OutboxPublishedWriter extends BatchingWriter<Long> {
+    private static final String DELETE_SQL = "DELETE FROM school_outbox WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OutboxPublishedWriter(
+            JdbcTemplate jdbcTemplate,
+            NotificationMetrics metrics,
+            @Value("${notification.outbox.published.buffer-capacity:50000}") int bufferCapacity,
+            @Value("${notification.outbox.published.batch-size:500}") int batchSize,
+            @Value("${notification.outbox.published.flush-interval-ms:200}") long flushIntervalMs
+    ) {
+        super("outbox-published-writer", metrics, bufferCapacity, batchSize, flushIntervalMs);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void write(Long id) {
+        add(id);
+    }
+
+    @Override
+    protected void writeBatch(List<Long> batch) {
+        jdbcTemplate.update(DELETE_SQL, ps ->
+                ps.setArray(1, ps.getConnection().createArrayOf("bigint", batch.toArray())));
+    }
+}
@@ -0,0 +1,117 @@
+package school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import school.dto.NotificationEvent;
+import school.entity.OutboxEventEntity;
+import school.exception.OutboxException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves committed outbox rows into the dispatch queue. Rows are leased rather than deleted
+ * when claimed, and removed only once every subscriber delivery for them has finished, so a
+ * crash before that point makes them claimable again by this or another instance. Finished rows
+ * are deleted in batches by {@link OutboxPublishedWriter}. While an event is being delivered, its
+ * lease is renewed every {@code notification.outbox.lease-renew-interval-ms}, so retries, breaker
+ * pauses and rate limits do not let another instance claim it again. An event whose delivery
+ * statuses could not be written, or that could not be dispatched, is released: its lease is no
+ * longer renewed, and the row is claimed again, by all its subscribers, once the lease runs out. Later rows of the same school are not claimed while an older one holds a lease, so a
+ * released event is delivered again before them rather than after. A row that cannot be read as
+ * an event is marked failed and left out of later claims.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+    private final OutboxService outboxService;
+    private final OutboxPublishedWriter publishedWriter;
+    private final ThreadService threadService;
+    private final int batchSize;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public OutboxRelay(
+            OutboxService outboxService,
+            OutboxPublishedWriter publishedWriter,
+            ThreadService threadService,
+            @Value("${notification.outbox.batch-size:200}") int batchSize
+    ) {
+        this.outboxService = outboxService;
+        this.publishedWriter = publishedWriter;
+        this.threadService = threadService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:500}")
+    public void relay() {
+        int claimed;
+        do {
+            int limit = Math.min(batchSize, threadService.getRemainingCapacity());
+            if (limit <= 0) {
+                return;
+            }
+            List<OutboxEventEntity> batch = outboxService.claimBatch(limit);
+            claimed = batch.size();
+            for (OutboxEventEntity entity : batch) {
+                dispatch(entity);
+            }
+        } while (claimed == batchSize);
+    }
+
+    private void dispatch(OutboxEventEntity entity) {
+        Long id = entity.getId();
+        if (!inFlight.add(id)) {
+            return;
+        }
+        NotificationEvent event;
+        try {
+            event = outboxService.toEvent(entity);
+        } catch (OutboxException e) {
+            inFlight.remove(id);
+            log.error("Marking outbox event {} failed", id, e);
+            try {
+                outboxService.markFailed(id, e.getMessage());
+            } catch (RuntimeException markError) {
+                log.error("Failed to mark outbox event {} failed", id, markError);
+            }
+            return;
+        }
+        event.setOnComplete(() -> published(id));
+        event.setOnRelease(() -> released(id));
+        try {
+            threadService.dispatch(event);
+        } catch (RuntimeException e) {
+            inFlight.remove(id);
+            log.error("Failed to dispatch outbox event {}; it is retried once its lease expires", id, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.outbox.lease-renew-interval-ms:20000}")
+    public void renewLeases() {
+        if (inFlight.isEmpty()) {
+            return;
+        }
+        try {
+            outboxService.renewLeases(new ArrayList<>(inFlight));
+        } catch (RuntimeException e) {
+            log.error("Failed to renew the leases of {} outbox events", inFlight.size(), e);
+        }
+    }
+
+    // The row is deleted with the next batch of the published writer; its lease outlasts the wait.
+    private void published(Long id) {
+        publishedWriter.write(id);
+        inFlight.remove(id);
+    }
+
+    private void released(Long id) {
+        inFlight.remove(id);
+        log.warn("Outbox event {} released; it is retried once its lease expires", id);
+    }
+}
@@ -0,0 +1,172 @@
+package school.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import school.dto.NotificationEvent;
+import school.dto.SchoolEntityDTO;
+import school.dto.SchoolUpdateDto;
+import school.entity.OutboxEventEntity;
+import school.enums.NotificationType;
+import school.exception.OutboxException;
+import school.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class OutboxService {
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final int LEASE_RENEWAL_CHUNK = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final NotificationMetrics metrics;
+    private final long leaseMs;
+    private final long updateCoalesceMs;
+
+    @Autowired
+    public OutboxService(
+            OutboxEventRepository outboxEventRepository,
+            ObjectMapper objectMapper,
+            NotificationMetrics metrics,
+            @Value("${notification.outbox.lease-ms:60000}") long leaseMs,
+            @Value("${notification.outbox.update-coalesce-ms:1000}") long updateCoalesceMs
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.leaseMs = leaseMs;
+        this.updateCoalesceMs = updateCoalesceMs;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendCreated(SchoolEntityDTO schoolEntityDTO) {
+        append(NotificationType.CREATE, schoolEntityDTO.getId(), schoolEntityDTO);
+    }
+
+    /**
+     * Merges into an update of the same school that no relay has claimed yet, if there is one.
+     * Update rows are only claimed once they are {@code notification.outbox.update-coalesce-ms}
+     * old, so edits made within that window of the first one reach subscribers as one event.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendUpdated(SchoolUpdateDto schoolUpdateDto) {
+        if (updateCoalesceMs > 0) {
+            Optional<OutboxEventEntity> pending = outboxEventRepository.lockPendingUpdate(schoolUpdateDto.getSchoolId());
+            if (pending.isPresent()) {
+                mergeUpdate(pending.get(), schoolUpdateDto);
+                metrics.updatesCoalesced("merged", 1);
+                return;
+            }
+        }
+        append(NotificationType.UPDATE, schoolUpdateDto.getSchoolId(), schoolUpdateDto);
+    }
+
+    // Updates still waiting in the outbox are dropped: the delete supersedes them.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendDeleted(SchoolEntityDTO schoolEntityDTO) {
+        if (updateCoalesceMs > 0) {
+            int cancelled = outboxEventRepository.deletePendingUpdates(schoolEntityDTO.getId());
+            if (cancelled > 0) {
+                metrics.updatesCoalesced("cancelled", cancelled);
+            }
+        }
+        append(NotificationType.DELETE, schoolEntityDTO.getId(), schoolEntityDTO);
+    }
+
+    @Transactional
+    public List<OutboxEventEntity> claimBatch(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEventEntity> batch = outboxEventRepository.lockNextBatch(
+                now,
+                now.minusNanos(updateCoalesceMs * 1_000_000L),
+                limit
+        );
+        LocalDateTime lockedUntil = now.plusNanos(leaseMs * 1_000_000L);
+
+        for (OutboxEventEntity event : batch) {
+            event.setLockedUntil(lockedUntil);
+            event.setClaimCount(event.getClaimCount() + 1);
+        }
+        return batch;
+    }
+
+    /** Pushes the lease of rows still being delivered one lease period ahead of now. */
+    @Transactional
+    public void renewLeases(Collection<Long> ids) {
+        LocalDateTime lockedUntil = LocalDateTime.now().plusNanos(leaseMs * 1_000_000L);
+        List<Long> remaining = new ArrayList<>(ids);
+        for (int from = 0; from < remaining.size(); from += LEASE_RENEWAL_CHUNK) {
+            List<Long> chunk = remaining.subList(from, Math.min(from + LEASE_RENEWAL_CHUNK, remaining.size()));
+            outboxEventRepository.extendLeases(chunk, lockedUntil);
+        }
+    }
+
+    // Failed rows stay for inspection but are never claimed again.
+    @Transactional
+    public void markFailed(Long id, String error) {
+        String message = error == null ? "" : error;
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+        outboxEventRepository.markFailed(id, LocalDateTime.now(), message);
+    }
+
+    public NotificationEvent toEvent(OutboxEventEntity entity) {
+        NotificationEvent event;
+        try {
+            switch (NotificationType.valueOf(entity.getEventType())) {
+                case CREATE:
+                    event = NotificationEvent.created(objectMapper.readValue(entity.getPayload(), SchoolEntityDTO.class));
+                    break;
+                case UPDATE:
+                    event = NotificationEvent.updated(objectMapper.readValue(entity.getPayload(), SchoolUpdateDto.class));
+                    break;
+                case DELETE:
+                    event = NotificationEvent.deleted(objectMapper.readValue(entity.getPayload(), SchoolEntityDTO.class));
+                    break;
+                default:
+                    throw new OutboxException("Unsupported outbox event type: " + entity.getEventType());
+            }
+        } catch (JsonProcessingException e) {
+            throw new OutboxException("Unreadable outbox payload, id " + entity.getId(), e);
+        }
+        event.setOutboxId(entity.getId());
+        event.setOccurredAt(entity.getCreatedAt());
+        return event;
+    }
+
+    // The merged event keeps the old values of the first update and the new values of the latest.
+    private void mergeUpdate(OutboxEventEntity pending, SchoolUpdateDto latest) {
+        try {
+            SchoolUpdateDto merged = objectMapper.readValue(pending.getPayload(), SchoolUpdateDto.class);
+            merged.setNewName(latest.getNewName());
+            merged.setNewAddress(latest.getNewAddress());
+            merged.setUpdateDate(latest.getUpdateDate());
+            pending.setPayload(objectMapper.writeValueAsString(merged));
+        } catch (JsonProcessingException e) {
+            throw new OutboxException("Unable to merge update event for school " + latest.getSchoolId(), e);
+        }
+    }
+
+    private void append(NotificationType type, Long schoolId, Object payload) {
+        OutboxEventEntity entity = new OutboxEventEntity();
+        entity.setSchoolId(schoolId);
+        entity.setEventType(type.name());
+        entity.setCreatedAt(LocalDateTime.now());
+        try {
+            entity.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new OutboxException("Unable to serialize " + type + " event for school " + schoolId, e);
+        }
+        outboxEventRepository.save(entity);
+    }
+}
@@ -0,0 +1,154 @@
+package school.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import school.dto.SubscriberChange;
+import school.exception.SubscriberChangeBusException;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Publishes subscriber changes with {@code pg_notify}, which Postgres delivers to listeners when
+ * the publishing transaction commits, in commit order. One connection per node stays in
+ * {@code LISTEN}; after every (re)connect the listeners are asked to resync, since notifications
+ * sent while nobody was listening are lost.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "notification.registry.bus", havingValue = "postgres", matchIfMissing = true)
+public class PostgresSubscriberChangeBus implements SubscriberChangeBus {
+    private static final int MAX_PAYLOAD_BYTES = 8000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final int pollTimeoutMs;
+    private final long reconnectDelayMs;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Thread listenerThread;
+    private volatile boolean running = true;
+
+    @Autowired
+    public PostgresSubscriberChangeBus(
+            DataSource dataSource,
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${notification.registry.channel:subscriber_changes}") String channel,
+            @Value("${notification.registry.poll-timeout-ms:1000}") int pollTimeoutMs,
+            @Value("${notification.registry.reconnect-delay-ms:5000}") long reconnectDelayMs
+    ) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid notification channel name: " + channel);
+        }
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    @Override
+    public void publish(SubscriberChange change) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new SubscriberChangeBusException("Error serializing " + change, e);
+        }
+        // The limit is in bytes of the database encoding, and Cyrillic takes two bytes per char in UTF-8.
+        if (payload.getBytes(StandardCharsets.UTF_8).length >= MAX_PAYLOAD_BYTES) {
+            throw new SubscriberChangeBusException("Subscriber change is too large to notify: " + change);
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", (ResultSetExtractor<Void>) rs -> null, channel, payload);
+    }
+
+    @Override
+    public synchronized void subscribe(Listener listener) {
+        listeners.add(listener);
+        if (listenerThread == null) {
+            Thread thread = new Thread(this::listen, "subscriber-change-listener");
+            thread.setDaemon(true);
+            thread.start();
+            listenerThread = thread;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        Thread thread = listenerThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("Listening for subscriber changes on channel {}", channel);
+                listeners.forEach(Listener::onResync);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        deliver(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Subscriber change listener lost its connection, reconnecting in {} ms", reconnectDelayMs, e);
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            }
+        }
+        log.info("Subscriber change listener stopped");
+    }
+
+    private void deliver(String payload) {
+        SubscriberChange change;
+        try {
+            change = objectMapper.readValue(payload, SubscriberChange.class);
+        } catch (IOException e) {
+            log.error("Ignoring unreadable subscriber change: {}", payload, e);
+            return;
+        }
+        for (Listener listener : listeners) {
+            try {
+                listener.onChange(change);
+            } catch (RuntimeException e) {
+                log.error("Failed to apply {}", change, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package school.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import school.dto.BulkImportResultDto;
+import school.dto.SchoolCreateDTO;
+import school.dto.SubscriberDto;
+import school.entity.SchoolEntity;
+import school.mapper.SchoolMapper;
+import school.repository.SchoolRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams NDJSON or CSV school rows from the request body and inserts them in chunks, each
+ * chunk in its own transaction together with its outbox events. Duplicates within a chunk are
+ * detected in memory; rows repeating an earlier chunk are found by the per-chunk query against the
+ * table, as that chunk is committed by then, so memory stays bounded by the chunk size. A
+ * chunk that still hits the name+address constraint, because of a concurrent create, is retried
+ * row by row; a chunk that fails otherwise is reported as rejected. Either way the import goes on
+ * and returns what it did.
+ */
+@Slf4j
+@Service
+public class SchoolBulkImportService {
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final String CSV_HEADER = "name,address";
+
+    private final SchoolRepository schoolRepository;
+    private final SchoolMapper schoolMapper;
+    private final OutboxService outboxService;
+    private final SubscriberRegistry subscriberRegistry;
+    private final SchoolDedupeFilter schoolDedupeFilter;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int chunkSize;
+
+    @Autowired
+    public SchoolBulkImportService(
+            SchoolRepository schoolRepository,
+            SchoolMapper schoolMapper,
+            OutboxService outboxService,
+            SubscriberRegistry subscriberRegistry,
+            SchoolDedupeFilter schoolDedupeFilter,
+            ObjectMapper objectMapper,
+            Validator validator,
+            PlatformTransactionManager transactionManager,
+            @Value("${school.import.chunk-size:500}") int chunkSize
+    ) {
+        this.schoolRepository = schoolRepository;
+        this.schoolMapper = schoolMapper;
+        this.outboxService = outboxService;
+        this.subscriberRegistry = subscriberRegistry;
+        this.schoolDedupeFilter = schoolDedupeFilter;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkImportResultDto importNdjson(InputStream body) {
+        return importRows(body, false);
+    }
+
+    public BulkImportResultDto importCsv(InputStream body) {
+        return importRows(body, true);
+    }
+
+    private BulkImportResultDto importRows(InputStream body, boolean csv) {
+        BulkImportResultDto result = new BulkImportResultDto();
+        Set<String> chunkKeys = new HashSet<>();
+        boolean notify = subscriberRegistry.hasSubscribers(SubscriberDto.ENTITY_SCHOOL, SubscriberDto.EVENT_ON_CREATE);
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || (csv && lineNumber == 1 && CSV_HEADER.equalsIgnoreCase(line.trim()))) {
+                    continue;
+                }
+                result.setReceived(result.getReceived() + 1);
+
+                SchoolCreateDTO row;
+                try {
+                    row = csv ? parseCsv(line) : objectMapper.readValue(line, SchoolCreateDTO.class);
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    reject(result, lineNumber, "unreadable row");
+                    continue;
+                }
+
+                Set<ConstraintViolation<SchoolCreateDTO>> violations = validator.validate(row);
+                if (!violations.isEmpty()) {
+                    reject(result, lineNumber, violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .collect(Collectors.joining(", ")));
+                    continue;
+                }
+
+                if (!chunkKeys.add(key(row.getName(), row.getAddress()))) {
+                    result.setDuplicates(result.getDuplicates() + 1);
+                    continue;
+                }
+
+                chunk.add(new ImportRow(lineNumber, row));
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, notify, result);
+                    chunk = new ArrayList<>(chunkSize);
+                    chunkKeys.clear();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Bulk import stopped reading the body: {}", result, e);
+            result.getErrors().add("import stopped: error reading body");
+        }
+
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, notify, result);
+        }
+        log.info("Bulk import finished: {}", result);
+        return result;
+    }
+
+    private void importChunk(List<ImportRow> chunk, boolean notify, BulkImportResultDto result) {
+        List<ImportRow> rows;
+        try {
+            rows = withoutExisting(chunk, result);
+        } catch (DataAccessException e) {
+            rejectAll(chunk, e, result);
+            return;
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            insert(rows, notify);
+            result.setCreated(result.getCreated() + rows.size());
+        } catch (DataIntegrityViolationException e) {
+            if (!SchoolService.violatesNameAddress(e)) {
+                rejectAll(rows, e, result);
+                return;
+            }
+            log.info("Chunk of {} rows raced a concurrent create, importing it row by row", rows.size());
+            for (ImportRow row : rows) {
+                importRow(row, notify, result);
+            }
+        } catch (DataAccessException e) {
+            rejectAll(rows, e, result);
+        }
+    }
+
+    private void importRow(ImportRow row, boolean notify, BulkImportResultDto result) {
+        try {
+            insert(Collections.singletonList(row), notify);
+            result.setCreated(result.getCreated() + 1);
+        } catch (DataIntegrityViolationException e) {
+            if (SchoolService.violatesNameAddress(e)) {
+                result.setDuplicates(result.getDuplicates() + 1);
+            } else {
+                reject(result, row.lineNumber, e.getMostSpecificCause().getMessage());
+            }
+        } catch (DataAccessException e) {
+            reject(result, row.lineNumber, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    // One query per chunk; names are indexed through the name+address constraint.
+    private List<ImportRow> withoutExisting(List<ImportRow> chunk, BulkImportResultDto result) {
+        Set<String> names = chunk.stream().map(row -> row.school.getName()).collect(Collectors.toSet());
+        Set<String> existing = readOnlyTransactionTemplate.execute(status ->
+                schoolRepository.findNamesAndAddressesByNameIn(names).stream()
+                        .map(school -> key(school.getName(), school.getAddress()))
+                        .collect(Collectors.toSet())
+        );
+        List<ImportRow> rows = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (existing.contains(key(row.school.getName(), row.school.getAddress()))) {
+                result.setDuplicates(result.getDuplicates() + 1);
+            } else {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private void insert(List<ImportRow> rows, boolean notify) {
+        List<SchoolEntity> entities = rows.stream()
+                .map(row -> schoolMapper.toEntity(row.school))
+                .collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status -> {
+            List<SchoolEntity> saved = schoolRepository.saveAll(entities);
+            schoolRepository.flush();
+            if (notify) {
+                saved.forEach(school -> outboxService.appendCreated(schoolMapper.toDto(school)));
+            }
+        });
+        entities.forEach(school -> schoolDedupeFilter.add(school.getName(), school.getAddress()));
+    }
+
+    private void rejectAll(List<ImportRow> rows, DataAccessException e, BulkImportResultDto result) {
+        log.error("Failed to import {} rows", rows.size(), e);
+        for (ImportRow row : rows) {
+            reject(result, row.lineNumber, "not imported: " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private void reject(BulkImportResultDto result, int lineNumber, String reason) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add("line " + lineNumber + ": " + reason);
+        }
+    }
+
+    private static final class ImportRow {
+        private final int lineNumber;
+        private final SchoolCreateDTO school;
+
+        private ImportRow(int lineNumber, SchoolCreateDTO school) {
+            this.lineNumber = lineNumber;
+            this.school = school;
+        }
+    }
+
+    private static String key(String name, String address) {
+        return name + '\u0000' + address;
+    }
+
+    private static SchoolCreateDTO parseCsv(String line) {
+        List<String> fields = new ArrayList<>(2);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        if (quoted || fields.size() != 2) {
+            throw new IllegalArgumentException("Expected two CSV fields: name,address");
+        }
+
+        SchoolCreateDTO row = new SchoolCreateDTO();
+        row.setName(fields.get(0).trim());
+        row.setAddress(fields.get(1).trim());
+        return row;
+    }
+}
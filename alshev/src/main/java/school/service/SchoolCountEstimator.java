@@ -0,0 +1,64 @@
+package school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import school.repository.SchoolRepository;
+
+/**
+ * Approximate number of schools for page footers. Uses the planner's row estimate from
+ * pg_class instead of count(*), and caches it for {@code school.count.cache-ttl-ms}. Runs in
+ * its own transaction so a database without pg_class can fall back to count(*) without
+ * spoiling the caller's transaction.
+ */
+@Slf4j
+@Component
+public class SchoolCountEstimator {
+    private final SchoolRepository schoolRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long cacheTtlMs;
+    private volatile long cachedCount = -1;
+    private volatile long cachedAt;
+
+    @Autowired
+    public SchoolCountEstimator(
+            SchoolRepository schoolRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${school.count.cache-ttl-ms:60000}") long cacheTtlMs
+    ) {
+        this.schoolRepository = schoolRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.cacheTtlMs = cacheTtlMs;
+    }
+
+    public long estimate() {
+        long now = System.currentTimeMillis();
+        if (cachedCount >= 0 && now - cachedAt < cacheTtlMs) {
+            return cachedCount;
+        }
+        long count = query();
+        cachedCount = count;
+        cachedAt = now;
+        return count;
+    }
+
+    private long query() {
+        try {
+            Long estimate = transactionTemplate.execute(status -> schoolRepository.estimateCount());
+            if (estimate != null && estimate >= 0) {
+                return estimate;
+            }
+        } catch (DataAccessException e) {
+            log.debug("Row estimate unavailable, falling back to count(*)", e);
+        }
+        Long count = transactionTemplate.execute(status -> schoolRepository.count());
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,126 @@
+package school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import school.dto.SchoolNameAddressView;
+import school.repository.SchoolRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over the name+address pairs in the school table. A negative answer means the pair
+ * is definitely new, so create can go straight to INSERT; a positive one may be a false positive
+ * and is confirmed with a query. The unique constraint stays the source of truth. Entries are
+ * never removed, so deletes and renames only raise the false-positive rate until the next restart.
+ */
+@Slf4j
+@Component
+public class SchoolDedupeFilter {
+    // AtomicLongArray is indexed by int, which caps the filter at 2^31 - 1 words.
+    private static final long MAX_WORDS = Integer.MAX_VALUE;
+
+    private final SchoolRepository schoolRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final boolean enabled;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private volatile boolean ready;
+
+    @Autowired
+    public SchoolDedupeFilter(
+            SchoolRepository schoolRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${school.dedupe.enabled:true}") boolean enabled,
+            @Value("${school.dedupe.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${school.dedupe.false-positive-rate:0.01}") double falsePositiveRate
+    ) {
+        this.schoolRepository = schoolRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long optimalWords = Math.max(1, (optimalBits + 63) / 64);
+        if (optimalWords > MAX_WORDS) {
+            log.warn("School dedupe filter needs {} words, capping at {}; the false-positive rate will be higher",
+                    optimalWords, MAX_WORDS);
+        }
+        int words = (int) Math.min(optimalWords, MAX_WORDS);
+        this.bits = new AtomicLongArray(enabled ? words : 1);
+        this.bitCount = (long) bits.length() * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long loaded = readOnlyTransactionTemplate.execute(status -> {
+            long count = 0;
+            try (Stream<SchoolNameAddressView> existing = schoolRepository.streamNamesAndAddresses()) {
+                for (SchoolNameAddressView school : (Iterable<SchoolNameAddressView>) existing::iterator) {
+                    add(school.getName(), school.getAddress());
+                    count++;
+                }
+            }
+            return count;
+        });
+        ready = true;
+        log.info("School dedupe filter warmed with {} entries ({} bits, {} hashes)", loaded, bitCount, hashCount);
+    }
+
+    public boolean isDefinitelyNew(String name, String address) {
+        if (!enabled || !ready) {
+            return false;
+        }
+        long hash = hash(name, address);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(hash, i, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void add(String name, String address) {
+        if (!enabled) {
+            return;
+        }
+        long hash = hash(name, address);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(hash, i, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    // Double hashing in 64 bits, so every bit of a filter larger than 2^31 bits is reachable.
+    static long index(long hash, int i, long bitCount) {
+        return Math.floorMod(hash + i * Long.rotateLeft(hash, 32), bitCount);
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes of name, a separator and address.
+    private static long hash(String name, String address) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : (name + '\u0000' + address).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
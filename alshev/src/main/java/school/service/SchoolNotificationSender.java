@@ -1,164 +1,135 @@
 package school.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 import school.dto.*;
 import school.enums.NotificationType;
+import school.exception.NotificationProcessingException;
+import school.exception.NotificationSendingException;
 
 import java.time.LocalDateTime;
-
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Posts webhooks. Payloads are rendered to JSON once per event by {@link #render} and then
+ * streamed from the same bytes to every subscriber; batches are written as a JSON array of the
+ * rendered items without copying them.
+ */
 @Slf4j
 @Service
 public class SchoolNotificationSender {
     private final RestTemplate restTemplate;
-    private final NotificationStatusService notificationStatusService;
-
-    private static final int MAX_RETRIES = 3;
-    private static final long RETRY_INTERVAL = 5000;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public SchoolNotificationSender(
-            RestTemplate restTemplate,
-            NotificationStatusService notificationStatusService
-    ) {
+    public SchoolNotificationSender(@Qualifier("webhookRestTemplate") RestTemplate restTemplate, ObjectMapper objectMapper) {
         this.restTemplate = restTemplate;
-        this.notificationStatusService = notificationStatusService;
+        this.objectMapper = objectMapper;
     }
 
-    @Async
-    public void sendCreate(SchoolEntityDTO schoolEntityDTO, SubscriberDto subscriberDto) {
-        boolean delivered = false;
-        for (int attempt = 1; attempt <= MAX_RETRIES && !delivered; attempt++) {
-            try {
-                SchoolOnCreateDto createDto = new SchoolOnCreateDto(
-                        schoolEntityDTO.getId(),
-                        schoolEntityDTO.getName(),
-                        schoolEntityDTO.getAddress(),
-                        LocalDateTime.now()
-                );
-
-                ResponseEntity<String> response = restTemplate.postForEntity(
-                        subscriberDto.getUrl(),
-                        createDto,
-                        String.class
-                );
-
-                if (!response.getStatusCode().is2xxSuccessful()) {
-                    throw new RestClientException("Unsuccessful response: " + response.getStatusCode());
-                }
-
-                notificationStatusService.saveNotificationStatus(
-                        subscriberDto,
-                        NotificationType.CREATE,
-                        "доставлено",
-                        attempt
-                );
-                delivered = true;
-                return;
-            } catch (RestClientException e) {
-                if (attempt == MAX_RETRIES) {
-                    notificationStatusService.saveNotificationStatus(
-                            subscriberDto,
-                            NotificationType.CREATE,
-                            "не доставлено",
-                            attempt
-                    );
-                    break;
-                }
-                sleep();
-            }
-        }
+    public WebhookPayload render(NotificationEvent event) {
+        return render(event.getType(), event.getSchoolEntityDTO(), event.getSchoolUpdateDto(), event.getOccurredAt());
     }
 
+    public int send(NotificationTask task) {
+        WebhookPayload payload = task.getPayload();
+        return post(task.getSubscriberDto(), payload.size(), payload::writeTo);
+    }
 
-    @Async
-    public void sendUpdate(SchoolUpdateDto schoolUpdateDto, SubscriberDto subscriberDto) {
-        for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
-            try {
-                ResponseEntity<String> response = restTemplate.postForEntity(
-                        subscriberDto.getUrl(),
-                        schoolUpdateDto,
-                        String.class
-                );
-
-                if (!response.getStatusCode().is2xxSuccessful()) {
-                    throw new RestClientException("Unsuccessful response: " + response.getStatusCode());
-                }
-
-                notificationStatusService.saveNotificationStatus(
-                        subscriberDto,
-                        NotificationType.UPDATE,
-                        "доставлено",
-                        attempt
-                );
-                return;
-            } catch (RestClientException e) {
-                if (attempt == MAX_RETRIES) {
-                    notificationStatusService.saveNotificationStatus(
-                            subscriberDto,
-                            NotificationType.UPDATE,
-                            "не доставлено",
-                            attempt
-                    );
-                    break;
+    public int sendBatch(List<NotificationTask> tasks, SubscriberDto subscriberDto) {
+        List<WebhookPayload> payloads = new ArrayList<>(tasks.size());
+        long length = 2 + Math.max(0, tasks.size() - 1);
+        for (NotificationTask task : tasks) {
+            WebhookPayload payload = task.getPayload();
+            payloads.add(payload);
+            length += payload.size();
+        }
+        return post(subscriberDto, length, out -> {
+            out.write('[');
+            for (int i = 0; i < payloads.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
                 }
-                sleep();
+                payloads.get(i).writeTo(out);
             }
-        }
+            out.write(']');
+        });
     }
 
-    @Async
-    public void sendDelete(SchoolEntityDTO schoolEntityDTO, SubscriberDto subscriberDto) {
-        for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
-            try {
-                SchoolOnDeleteDto deleteDto = new SchoolOnDeleteDto(
-                        schoolEntityDTO.getId(),
-                        schoolEntityDTO.getName(),
-                        schoolEntityDTO.getAddress()
-                );
-
-                ResponseEntity<String> response = restTemplate.postForEntity(
-                        subscriberDto.getUrl(),
-                        deleteDto,
-                        String.class
-                );
-
-                if (!response.getStatusCode().is2xxSuccessful()) {
-                    throw new RestClientException("Unsuccessful response: " + response.getStatusCode());
-                }
-
-                notificationStatusService.saveNotificationStatus(
-                        subscriberDto,
-                        NotificationType.DELETE,
-                        "доставлено",
-                        attempt
-                );
-                return;
-            } catch (RestClientException e) {
-                if (attempt == MAX_RETRIES) {
-                    notificationStatusService.saveNotificationStatus(
-                            subscriberDto,
-                            NotificationType.DELETE,
-                            "не доставлено",
-                            attempt
-                    );
-                    break;
-                }
-                sleep();
-            }
+    private WebhookPayload render(
+            NotificationType type,
+            SchoolEntityDTO school,
+            SchoolUpdateDto schoolUpdateDto,
+            LocalDateTime occurredAt
+    ) {
+        Object body;
+        switch (type) {
+            case CREATE:
+                body = new SchoolOnCreateDto(school.getId(), school.getName(), school.getAddress(), occurredAt);
+                break;
+            case UPDATE:
+                body = schoolUpdateDto;
+                break;
+            case DELETE:
+                body = new SchoolOnDeleteDto(school.getId(), school.getName(), school.getAddress());
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported notification type: " + type);
+        }
+        try {
+            return new WebhookPayload(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new NotificationProcessingException("Unable to render " + type + " payload", e);
         }
     }
 
-    private void sleep() {
+    // The length is set up front so the streamed body is not sent chunked.
+    private int post(SubscriberDto subscriberDto, long contentLength, StreamingHttpOutputMessage.Body body) {
+        int statusCode;
         try {
-            Thread.sleep(RETRY_INTERVAL);
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
+            statusCode = restTemplate.execute(
+                    subscriberDto.getUrl(),
+                    HttpMethod.POST,
+                    request -> {
+                        request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                        request.getHeaders().setContentLength(contentLength);
+                        if (request instanceof StreamingHttpOutputMessage) {
+                            ((StreamingHttpOutputMessage) request).setBody(body);
+                        } else {
+                            body.writeTo(request.getBody());
+                        }
+                    },
+                    response -> response.getStatusCode().value()
+            );
+        } catch (RestClientResponseException e) {
+            throw new NotificationSendingException(
+                    "Error sending notification to " + subscriberDto.getUrl(),
+                    e.getStatusCode().value(),
+                    e
+            );
+        } catch (RestClientException e) {
+            throw new NotificationSendingException("Error sending notification to " + subscriberDto.getUrl(), e);
+        }
+
+        if (!HttpStatusCode.valueOf(statusCode).is2xxSuccessful()) {
+            throw new NotificationSendingException(
+                    "Unsuccessful response: " + statusCode,
+                    statusCode,
+                    null
+            );
         }
+        return statusCode;
     }
-}
\ No newline at end of file
+}
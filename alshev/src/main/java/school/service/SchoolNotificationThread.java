@@ -1,206 +1,158 @@
 package school.service;
 
-import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import school.dto.NotificationEvent;
+import school.dto.NotificationQueueStatsDto;
 import school.dto.NotificationTask;
-import school.dto.SchoolEntityDTO;
-import school.dto.SchoolUpdateDto;
 import school.dto.SubscriberDto;
-import school.exception.NotificationProcessingException;
-import school.exception.SubscriberNotFoundException;
+import school.enums.NotificationType;
+import school.exception.ThreadServiceException;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
+@Slf4j
 public class SchoolNotificationThread extends Thread {
-    private HashMap<String, ArrayList<SubscriberDto>> mapSubscribers;
-    private ArrayList<SchoolEntityDTO> createdSchools = new ArrayList<>();
-    private ArrayList<SchoolUpdateDto> updatedSchools = new ArrayList<>();
-    private final ArrayList<SchoolEntityDTO> deletedSchools = new ArrayList<>();
+    private final SubscriberRegistry subscriberRegistry;
+    private final BlockingQueue<NotificationEvent> events;
+    private final int queueCapacity;
+    private final AtomicLong dispatchedEvents = new AtomicLong();
+    private final AtomicLong totalDispatchLatencyNanos = new AtomicLong();
+    private final AtomicLong maxDispatchLatencyNanos = new AtomicLong();
 
-    @Setter
-    private final SchoolNotificationSender notificationSender;
-    private final NotificationStatusService notificationStatusService;
-    private static final int MAX_RETRIES = 3;
-    private static final long RETRY_INTERVAL = 5000;
+    private final WebhookDispatcher webhookDispatcher;
+    private final NotificationMetrics metrics;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
 
     @Autowired
     public SchoolNotificationThread(
-            SchoolNotificationSender notificationSender,
-            NotificationStatusService notificationStatusService
+            String name,
+            SubscriberRegistry subscriberRegistry,
+            WebhookDispatcher webhookDispatcher,
+            NotificationMetrics metrics,
+            int queueCapacity
     ) {
-        this.notificationSender = notificationSender;
-        this.notificationStatusService = notificationStatusService;
-
-        this.mapSubscribers = new HashMap<>();
-        this.mapSubscribers.put(SubscriberDto.EVENT_ON_CREATE, new ArrayList<>());
-        this.mapSubscribers.put(SubscriberDto.EVENT_ON_UPDATE, new ArrayList<>());
-        this.mapSubscribers.put(SubscriberDto.EVENT_ON_DELETE, new ArrayList<>());
-    }
-
-    public void addSubscriber(SubscriberDto subscriberDto) {
-        mapSubscribers.get(subscriberDto.getEventType()).add(subscriberDto);
-    }
-
-    public void removeSubscriber(Long subscriberId) {
-        boolean found = false;
-        for (String eventType : mapSubscribers.keySet()) {
-            ArrayList<SubscriberDto> subscribers = mapSubscribers.get(eventType);
-            for (int i = 0; i < subscribers.size(); i++) {
-                if (subscribers.get(i).getId().equals(subscriberId)) {
-                    subscribers.remove(i);
-                    found = true;
-                    break;
-                }
-            }
-        }
-        if (!found) {
-            throw new SubscriberNotFoundException("Subscriber with ID " + subscriberId + " not found.");
-        }
+        super(name);
+        setDaemon(true);
+        this.subscriberRegistry = subscriberRegistry;
+        this.webhookDispatcher = webhookDispatcher;
+        this.metrics = metrics;
+        this.queueCapacity = queueCapacity;
+        this.events = new ArrayBlockingQueue<>(queueCapacity);
     }
 
-    public List<SubscriberDto> getSubscribers() {
-        ArrayList<SubscriberDto> allSubscribers = new ArrayList<>();
-        for (ArrayList<SubscriberDto> subscribers : mapSubscribers.values()) {
-            allSubscribers.addAll(subscribers);
+    public void enqueue(NotificationEvent event) {
+        try {
+            events.put(event);
+            metrics.eventEnqueued(event.getType());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ThreadServiceException("Interrupted while enqueuing " + event, e);
         }
-        return allSubscribers;
     }
 
-    public void addSchoolCreated(SchoolEntityDTO schoolEntityDTO) {
-        createdSchools.add(schoolEntityDTO);
+    public int getRemainingCapacity() {
+        return events.remainingCapacity();
     }
 
-    public void addSchoolUpdated(SchoolUpdateDto schoolUpdateDto) {
-        updatedSchools.add(schoolUpdateDto);
-    }
-
-    public void addSchoolDeleted(SchoolEntityDTO schoolEntityDTO) {
-        deletedSchools.add(schoolEntityDTO);
+    public NotificationQueueStatsDto getStats() {
+        long dispatched = dispatchedEvents.get();
+        double averageLatencyMs = dispatched == 0
+                ? 0
+                : totalDispatchLatencyNanos.get() / (double) dispatched / NANOS_PER_MILLI;
+        return new NotificationQueueStatsDto(
+                events.size(),
+                queueCapacity,
+                dispatched,
+                averageLatencyMs,
+                maxDispatchLatencyNanos.get() / (double) NANOS_PER_MILLI,
+                1
+        );
     }
 
     @Override
     public void run() {
-        while (true) {
-            boolean sent = false;
-            sent = sent || checkAndSendCreate();
-            sent = sent || checkAndSendUpdate();
-            sent = sent || checkAndSendDelete();
-            if (!sent) {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {}
+        while (!isInterrupted()) {
+            NotificationEvent event;
+            try {
+                event = events.take();
+            } catch (InterruptedException e) {
+                break;
             }
-        }
-    }
-
-    private boolean checkAndSendCreate() {
-        if (createdSchools.isEmpty()) {
-            return false;
-        }
-
-        SchoolEntityDTO first = createdSchools.remove(0);
-        ArrayList<SubscriberDto> subscribers = mapSubscribers.get(SubscriberDto.EVENT_ON_CREATE);
-
-        if (subscribers.isEmpty()) {
-            return true;
-        }
-
-        for (SubscriberDto subscriber : subscribers) {
-            if (subscriber.getEventType().equals(SubscriberDto.EVENT_ON_CREATE)) {
-                NotificationTask task = new NotificationTask(first, subscriber);
-                processNotification(task);
+            long latency = recordDispatchLatency(event);
+            try {
+                int deliveries = dispatch(event);
+                metrics.eventDispatched(event.getType(), latency, deliveries);
+            } catch (RuntimeException e) {
+                log.error("Failed to dispatch {}", event, e);
             }
         }
-        return true;
+        log.info("Notification dispatcher stopped, {} events left in queue", events.size());
     }
 
-    private boolean checkAndSendUpdate() {
-        if (updatedSchools.isEmpty()) {
-            return false;
-        }
+    public int getQueueDepth() {
+        return events.size();
+    }
 
-        SchoolUpdateDto first = updatedSchools.remove(0);
-        ArrayList<SubscriberDto> subscribers = mapSubscribers.get(SubscriberDto.EVENT_ON_UPDATE);
+    private long recordDispatchLatency(NotificationEvent event) {
+        long latency = System.nanoTime() - event.getEnqueuedAt();
+        dispatchedEvents.incrementAndGet();
+        totalDispatchLatencyNanos.addAndGet(latency);
+        maxDispatchLatencyNanos.accumulateAndGet(latency, Math::max);
+        return latency;
+    }
 
-        if (subscribers.isEmpty()) {
-            return true;
+    private int dispatch(NotificationEvent event) {
+        List<NotificationTask> tasks;
+        try {
+            tasks = tasksFor(event);
+        } catch (RuntimeException e) {
+            // Nothing has been handed out yet, so the whole event goes back to the outbox.
+            event.release();
+            throw e;
         }
-
-        for (SubscriberDto subscriber : subscribers) {
-            if (subscriber.getEventType().equals(SubscriberDto.EVENT_ON_UPDATE)) {
-                NotificationTask task = new NotificationTask(first, subscriber);
-                processNotification(task);
+        event.expectDeliveries(tasks.size());
+        for (NotificationTask task : tasks) {
+            try {
+                webhookDispatcher.submit(task);
+            } catch (RuntimeException e) {
+                log.error("Failed to submit {}", task, e);
+                task.failed();
             }
         }
-        return true;
+        return tasks.size();
     }
 
-    private boolean checkAndSendDelete() {
-        if (deletedSchools.isEmpty()) {
-            return false;
-        }
-
-        SchoolEntityDTO first = deletedSchools.remove(0);
-        ArrayList<SubscriberDto> subscribers = mapSubscribers.get(SubscriberDto.EVENT_ON_DELETE);
-
+    private List<NotificationTask> tasksFor(NotificationEvent event) {
+        List<SubscriberDto> subscribers = subscriberRegistry.getSubscribers(
+                SubscriberDto.ENTITY_SCHOOL,
+                eventTypeOf(event.getType())
+        );
+        List<NotificationTask> tasks = new ArrayList<>(subscribers.size());
         if (subscribers.isEmpty()) {
-            return true;
+            return tasks;
         }
-
+        webhookDispatcher.render(event);
         for (SubscriberDto subscriber : subscribers) {
-            if (subscriber.getEventType().equals(SubscriberDto.EVENT_ON_DELETE)) {
-                NotificationTask task = new NotificationTask(first, subscriber, true);
-                processNotification(task);
-            }
-        }
-        return true;
-    }
-
-    public void sendNotification(NotificationTask task) throws NotificationProcessingException {
-        try {
-            switch (task.getType()) {
-                case CREATE:
-                    notificationSender.sendCreate(task.getSchoolEntityDTO(), task.getSubscriberDto());
-                    break;
-                case UPDATE:
-                    notificationSender.sendUpdate(task.getSchoolUpdateDto(), task.getSubscriberDto());
-                    break;
-                case DELETE:
-                    notificationSender.sendDelete(task.getSchoolEntityDTO(), task.getSubscriberDto());
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unsupported notification type: " + task.getType());
-            }
-        } catch (NotificationProcessingException e) {
-            throw e;
-        } catch (RuntimeException e) {
-            throw new NotificationProcessingException("Error processing notification: " + task, e);
+            tasks.add(new NotificationTask(event, subscriber));
         }
+        return tasks;
     }
 
-    private void processNotification(NotificationTask task) {
-        int attempt = 0;
-        boolean delivered = false;
-
-        while (attempt < MAX_RETRIES && !delivered) {
-            attempt++;
-            try {
-                sendNotification(task);
-                notificationStatusService.saveNotificationStatus(task, "доставлено", attempt);
-                delivered = true;
-            } catch (Exception e) {
-                if (attempt == MAX_RETRIES) {
-                    notificationStatusService.saveNotificationStatus(task, "не доставлено", attempt);
-                } else {
-                    try {
-                        Thread.sleep(RETRY_INTERVAL);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                    }
-                }
-            }
+    private static String eventTypeOf(NotificationType type) {
+        switch (type) {
+            case CREATE:
+                return SubscriberDto.EVENT_ON_CREATE;
+            case UPDATE:
+                return SubscriberDto.EVENT_ON_UPDATE;
+            case DELETE:
+                return SubscriberDto.EVENT_ON_DELETE;
+            default:
+                throw new IllegalArgumentException("Unsupported notification type: " + type);
         }
     }
-}
\ No newline at end of file
+}
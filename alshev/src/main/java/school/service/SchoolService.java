@@ -4,24 +4,28 @@ package school.service;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.dao.DataAccessException;
-import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
+import school.CacheConfig;
 import school.dto.SchoolCreateDTO;
 import school.dto.SchoolEntityDTO;
+import school.dto.SchoolPageDto;
 import school.dto.SchoolUpdateDto;
 import school.dto.SubscriberDto;
 import school.entity.SchoolEntity;
-import school.entity.SubscriberEntity;
 import school.exception.*;
 import school.mapper.SchoolMapper;
-import school.mapper.SubscriberMapper;
 import school.repository.SchoolRepository;
-import school.repository.SubscriberRepository;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -33,54 +37,57 @@ public class SchoolService {
     private final SchoolRepository schoolRepository;
     private final SchoolMapper schoolMapper;
     private final SchoolNotificationSender schoolNotificationSender;
-    private final SubscriberRepository subscriberRepository;
-    private final SubscriberMapper subscriberMapper;
-    private final ThreadService threadService;
-    private static final int EXPECTED_SUBSCRIBER_COUNT = 1;
+    private final SubscriberRegistry subscriberRegistry;
+    private final OutboxService outboxService;
+    private final SchoolCountEstimator schoolCountEstimator;
+    private final SchoolDedupeFilter schoolDedupeFilter;
+    private static final String DUPLICATE_SCHOOL_MESSAGE = "A school with this name and address already exists.";
     @Autowired
     public SchoolService(SchoolRepository schoolRepository,
                          SchoolMapper schoolMapper,
                          SchoolNotificationSender schoolNotificationSender,
-                         SubscriberRepository subscriberRepository,
-                         SubscriberMapper subscriberMapper, ThreadService threadService) {
+                         SubscriberRegistry subscriberRegistry,
+                         OutboxService outboxService, SchoolCountEstimator schoolCountEstimator,
+                         SchoolDedupeFilter schoolDedupeFilter) {
         this.schoolRepository = schoolRepository;
         this.schoolMapper = schoolMapper;
         this.schoolNotificationSender = schoolNotificationSender;
-        this.subscriberRepository = subscriberRepository;
-        this.subscriberMapper = subscriberMapper;
-        this.threadService = threadService;
+        this.subscriberRegistry = subscriberRegistry;
+        this.outboxService = outboxService;
+        this.schoolCountEstimator = schoolCountEstimator;
+        this.schoolDedupeFilter = schoolDedupeFilter;
     }
+    @CachePut(cacheNames = CacheConfig.SCHOOLS_CACHE, key = "#result.id")
     public SchoolEntityDTO create(SchoolCreateDTO schoolCreateDTO) {
         if (schoolCreateDTO.getName() == null || schoolCreateDTO.getName().trim().isEmpty()) {
             throw new SchoolValidationException("School name cannot be empty");
         }
 
-        if (schoolRepository.existsByNameAndAddress(
-                schoolCreateDTO.getName(),
-                schoolCreateDTO.getAddress())
+        if (!schoolDedupeFilter.isDefinitelyNew(schoolCreateDTO.getName(), schoolCreateDTO.getAddress())
+                && schoolRepository.existsByNameAndAddress(schoolCreateDTO.getName(), schoolCreateDTO.getAddress())
         ) {
-            throw new DuplicateSchoolException("A school with this name and address already exists.");
+            throw new DuplicateSchoolException(DUPLICATE_SCHOOL_MESSAGE);
         }
         SchoolEntity newSchool = schoolMapper.toEntity(schoolCreateDTO);
         SchoolEntity savedSchool;
 
         try {
-            savedSchool = schoolRepository.save(newSchool);
+            savedSchool = schoolRepository.saveAndFlush(newSchool);
+        } catch (DataIntegrityViolationException e) {
+            throw translateIntegrityViolation("Error creating school: ", e);
         } catch (DataAccessException e) {
             throw new SchoolServiceException("Error creating school: " + e.getMessage(), e);
         }
+        schoolDedupeFilter.add(savedSchool.getName(), savedSchool.getAddress());
 
         SchoolEntityDTO createdDto = schoolMapper.toDto(savedSchool);
-        List<SubscriberDto> subscribers = threadService.getSubscribers();
-
-        for (SubscriberDto subscriber : subscribers) {
-            if (SubscriberDto.EVENT_ON_CREATE.equals(subscriber.getEventType())) {
-                threadService.addSchoolCreated(createdDto, subscriber);
-            }
+        if (hasSubscribers(SubscriberDto.EVENT_ON_CREATE)) {
+            outboxService.appendCreated(createdDto);
         }
 
         return createdDto;
     }
+    @CacheEvict(cacheNames = CacheConfig.SCHOOLS_CACHE, key = "#id")
     public SchoolEntityDTO update(Long id, SchoolEntityDTO schoolEntityDTO) {
         Optional<SchoolEntity> fromDb = schoolRepository.findById(id);
         if (!fromDb.isPresent()) {
@@ -92,23 +99,23 @@ public class SchoolService {
         SchoolEntity updatedSchool;
 
         try {
-            updatedSchool = schoolRepository.save(fromDb.get());
+            updatedSchool = schoolRepository.saveAndFlush(fromDb.get());
+        } catch (DataIntegrityViolationException e) {
+            throw translateIntegrityViolation("Error updating school: ", e);
         } catch (DataAccessException e) {
             throw new SchoolServiceException("Error updating school: " + e.getMessage(), e);
         }
+        schoolDedupeFilter.add(updatedSchool.getName(), updatedSchool.getAddress());
 
-        SchoolUpdateDto schoolUpdateDto = new SchoolUpdateDto(old, schoolEntityDTO);
-        List<SubscriberDto> subscribers = threadService.getSubscribers();
-
-        for (SubscriberDto subscriber : subscribers) {
-            if (SubscriberDto.EVENT_ON_UPDATE.equals(subscriber.getEventType())) {
-                threadService.addSchoolUpdated(schoolUpdateDto);
-            }
+        SchoolEntityDTO updatedDto = schoolMapper.toDto(updatedSchool);
+        if (hasSubscribers(SubscriberDto.EVENT_ON_UPDATE)) {
+            outboxService.appendUpdated(new SchoolUpdateDto(old, updatedDto));
         }
 
-        return schoolMapper.toDto(updatedSchool);
+        return updatedDto;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.SCHOOLS_CACHE, key = "#id")
     public void delete(Long id) {
         Optional<SchoolEntity> fromDb = schoolRepository.findById(id);
         if (!fromDb.isPresent()) {
@@ -118,49 +125,83 @@ public class SchoolService {
         SchoolEntity existingSchool = fromDb.get();
         SchoolEntityDTO schoolDto = schoolMapper.toDto(existingSchool);
 
-        List<SubscriberDto> subscribers = getSubscribersForSchool(existingSchool);
-        for (SubscriberDto subscriber : subscribers) {
-            if (SubscriberDto.EVENT_ON_DELETE.equals(subscriber.getEventType())) {
-                threadService.addSchoolDeleted(schoolDto);
-            }
-        }
-
+        // The school row is locked before the outbox rows, in the same order as update, so a delete
+        // cancelling pending updates cannot deadlock with an update merging into them.
         try {
             schoolRepository.delete(existingSchool);
+            schoolRepository.flush();
         } catch (DataAccessException e) {
             throw new SchoolServiceException("Error deleting school: " + e.getMessage(), e);
         }
+
+        if (hasSubscribers(SubscriberDto.EVENT_ON_DELETE)) {
+            outboxService.appendDeleted(schoolDto);
+        }
+    }
+    private static RuntimeException translateIntegrityViolation(String message, DataIntegrityViolationException e) {
+        if (violatesNameAddress(e)) {
+            return new DuplicateSchoolException(DUPLICATE_SCHOOL_MESSAGE, e);
+        }
+        return new SchoolServiceException(message + e.getMessage(), e);
     }
-    public List<SubscriberDto> getSubscribersForSchool(SchoolEntity schoolEntity) {
-        List<SubscriberEntity> subscribers = subscriberRepository.findByEntity(
-                SubscriberDto.ENTITY_SCHOOL
-        );
-        log.info("DEBUG: Searching for subscribers with entity: {}", SubscriberDto.ENTITY_SCHOOL);
 
-        if (subscribers.isEmpty()) {
-            throw new EmptyResultDataAccessException("Subscribers were not found for the specified school.", EXPECTED_SUBSCRIBER_COUNT);
+    static boolean violatesNameAddress(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                String constraint = ((ConstraintViolationException) cause).getConstraintName();
+                if (constraint != null && constraint.equalsIgnoreCase(SchoolEntity.NAME_ADDRESS_CONSTRAINT)) {
+                    return true;
+                }
+            }
         }
-        return subscribers.stream()
-                .map(subscriberMapper::toDto)
-                .collect(Collectors.toList());
+        return false;
     }
 
-    public Page<SchoolEntityDTO> getAllSchoolsPaged(Pageable pageable) {
-        Page<SchoolEntity> schoolPage = schoolRepository.findAll(pageable);
-        return schoolPage.map(schoolMapper::toDto);
+    private boolean hasSubscribers(String eventType) {
+        return subscriberRegistry.hasSubscribers(SubscriberDto.ENTITY_SCHOOL, eventType);
     }
 
-    public List<SchoolEntityDTO> getAllSchools() {
-        List<SchoolEntity> schools = schoolRepository.findAll();
+    public SchoolPageDto getSchoolsPage(Long after, Long before, int size, boolean withCount) {
+        List<SchoolEntity> rows;
+        boolean more;
+        if (before != null) {
+            rows = new ArrayList<>(schoolRepository.findByIdLessThanOrderByIdDesc(before, Limit.of(size + 1)));
+            more = rows.size() > size;
+            if (more) {
+                rows.remove(size);
+            }
+            Collections.reverse(rows);
+        } else {
+            rows = schoolRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(size + 1));
+            more = rows.size() > size;
+            if (more) {
+                rows = rows.subList(0, size);
+            }
+        }
 
-        if (schools.isEmpty()) {
-            throw new NoContentException("No schools found");
+        SchoolPageDto page = new SchoolPageDto();
+        page.setItems(rows.stream()
+                .map(schoolMapper::toDto)
+                .collect(Collectors.toList()));
+        if (!rows.isEmpty()) {
+            page.setNextAfter(rows.get(rows.size() - 1).getId());
+            page.setPreviousBefore(rows.get(0).getId());
+        }
+        page.setHasNext(before != null ? !rows.isEmpty() : more);
+        page.setHasPrevious(before != null ? more : after != null && after > 0 && !rows.isEmpty());
+        if (withCount) {
+            page.setEstimatedTotal(schoolCountEstimator.estimate());
         }
+        return page;
+    }
 
-        return schools.stream()
+    public List<SchoolEntityDTO> findSchoolsAfter(long afterId, int limit) {
+        return schoolRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit)).stream()
                 .map(schoolMapper::toDto)
                 .collect(Collectors.toList());
     }
+
+    @Cacheable(cacheNames = CacheConfig.SCHOOLS_CACHE, key = "#id")
     public SchoolEntityDTO findById(Long id) {
         if (id == null || id <= 0) {
             throw new InvalidSchoolIdException("The school ID must be a positive number.");
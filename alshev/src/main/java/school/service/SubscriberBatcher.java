@@ -0,0 +1,72 @@
+package school.service;
+
+import org.springframework.scheduling.TaskScheduler;
+import school.dto.NotificationBatch;
+import school.dto.NotificationTask;
+import school.dto.SubscriberDto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+
+/**
+ * Collects deliveries for one batching subscriber until either {@code batchSize} of them are
+ * waiting or the oldest has waited {@code batchLingerMs}, then hands them on as one batch.
+ */
+public class SubscriberBatcher {
+    private final SubscriberDto subscriber;
+    private final TaskScheduler scheduler;
+    private final Consumer<NotificationBatch> target;
+    private List<NotificationTask> buffer = new ArrayList<>();
+    private ScheduledFuture<?> lingerTimer;
+
+    public SubscriberBatcher(SubscriberDto subscriber, TaskScheduler scheduler, Consumer<NotificationBatch> target) {
+        this.subscriber = subscriber;
+        this.scheduler = scheduler;
+        this.target = target;
+    }
+
+    public SubscriberDto getSubscriber() {
+        return subscriber;
+    }
+
+    public void add(NotificationTask task) {
+        List<NotificationTask> full = null;
+        synchronized (this) {
+            buffer.add(task);
+            if (buffer.size() >= subscriber.getBatchSize()) {
+                full = takeBuffer();
+            } else if (lingerTimer == null) {
+                long lingerMs = subscriber.getBatchLingerMs() == null ? 0 : subscriber.getBatchLingerMs();
+                lingerTimer = scheduler.schedule(this::flush, Instant.now().plusMillis(lingerMs));
+            }
+        }
+        if (full != null) {
+            target.accept(new NotificationBatch(subscriber, full));
+        }
+    }
+
+    public void flush() {
+        List<NotificationTask> tasks;
+        synchronized (this) {
+            if (buffer.isEmpty()) {
+                lingerTimer = null;
+                return;
+            }
+            tasks = takeBuffer();
+        }
+        target.accept(new NotificationBatch(subscriber, tasks));
+    }
+
+    private List<NotificationTask> takeBuffer() {
+        if (lingerTimer != null) {
+            lingerTimer.cancel(false);
+            lingerTimer = null;
+        }
+        List<NotificationTask> tasks = buffer;
+        buffer = new ArrayList<>();
+        return tasks;
+    }
+}
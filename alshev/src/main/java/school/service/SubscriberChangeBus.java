@@ -0,0 +1,22 @@
+package school.service;
+
+import school.dto.SubscriberChange;
+
+/**
+ * Carries subscriber registry changes between application instances. Implementations deliver
+ * a published change only once the publishing transaction commits.
+ */
+public interface SubscriberChangeBus {
+    void publish(SubscriberChange change);
+
+    void subscribe(Listener listener);
+
+    interface Listener {
+        void onChange(SubscriberChange change);
+
+        /**
+         * Changes may have been missed, e.g. after the bus reconnected; the full state should be reloaded.
+         */
+        void onResync();
+    }
+}
@@ -0,0 +1,184 @@
+package school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+import school.dto.SubscriberHealthDto;
+import school.enums.CircuitState;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Failure- and latency-rate circuit breaker for one subscriber over its last {@code windowSize}
+ * deliveries. While open, deliveries are parked instead of attempted; after
+ * {@code openDurationMs} one parked delivery is let through as a probe, and if it succeeds the
+ * circuit closes and the rest are replayed.
+ */
+@Slf4j
+public class SubscriberCircuitBreaker {
+    private final Long subscriberId;
+    private final Settings settings;
+    private final TaskScheduler scheduler;
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private final Queue<Runnable> deferred = new ArrayDeque<>();
+    private int recorded;
+    private int next;
+    private CircuitState state = CircuitState.CLOSED;
+    private long openUntil;
+    private boolean probeInFlight;
+
+    public SubscriberCircuitBreaker(Long subscriberId, Settings settings, TaskScheduler scheduler) {
+        this.subscriberId = subscriberId;
+        this.settings = settings;
+        this.scheduler = scheduler;
+        this.failed = new boolean[settings.windowSize];
+        this.slow = new boolean[settings.windowSize];
+    }
+
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() < openUntil) {
+                    return false;
+                }
+                state = CircuitState.HALF_OPEN;
+                probeInFlight = true;
+                log.info("Circuit for subscriber {} is half-open, sending probe", subscriberId);
+                return true;
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    public void defer(Runnable delivery) {
+        boolean probeDue;
+        synchronized (this) {
+            deferred.add(delivery);
+            probeDue = state == CircuitState.OPEN && System.currentTimeMillis() >= openUntil;
+        }
+        if (probeDue) {
+            probe();
+        }
+    }
+
+    public void onSuccess(long latencyMs) {
+        List<Runnable> replay = null;
+        synchronized (this) {
+            if (state == CircuitState.HALF_OPEN) {
+                probeInFlight = false;
+                state = CircuitState.CLOSED;
+                resetWindow();
+                replay = new ArrayList<>(deferred);
+                deferred.clear();
+                log.info("Circuit for subscriber {} closed, replaying {} deliveries", subscriberId, replay.size());
+            } else {
+                record(false, latencyMs >= settings.slowCallThresholdMs);
+            }
+        }
+        if (replay != null) {
+            replay.forEach(Runnable::run);
+        }
+    }
+
+    public synchronized void onFailure(long latencyMs) {
+        if (state == CircuitState.HALF_OPEN) {
+            probeInFlight = false;
+            open();
+            return;
+        }
+        record(true, latencyMs >= settings.slowCallThresholdMs);
+    }
+
+    /** Takes every parked delivery out of the breaker. */
+    public synchronized List<Runnable> drainDeferred() {
+        List<Runnable> drained = new ArrayList<>(deferred);
+        deferred.clear();
+        return drained;
+    }
+
+    public synchronized SubscriberHealthDto getHealth() {
+        double failureRate = rate(failed);
+        double slowCallRate = rate(slow);
+        double healthScore = state == CircuitState.CLOSED
+                ? Math.max(0, 1 - Math.max(failureRate, slowCallRate))
+                : 0;
+        return new SubscriberHealthDto(subscriberId, state, failureRate, slowCallRate, healthScore, deferred.size());
+    }
+
+    private void record(boolean callFailed, boolean callSlow) {
+        failed[next] = callFailed;
+        slow[next] = callSlow;
+        next = (next + 1) % failed.length;
+        recorded = Math.min(recorded + 1, failed.length);
+
+        if (state == CircuitState.CLOSED && recorded >= settings.minimumCalls
+                && (rate(failed) >= settings.failureRateThreshold || rate(slow) >= settings.slowCallRateThreshold)) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = CircuitState.OPEN;
+        openUntil = System.currentTimeMillis() + settings.openDurationMs;
+        log.warn("Circuit for subscriber {} opened for {} ms", subscriberId, settings.openDurationMs);
+        scheduler.schedule(this::probe, Instant.ofEpochMilli(openUntil));
+    }
+
+    private void probe() {
+        Runnable probe;
+        synchronized (this) {
+            if (state != CircuitState.OPEN || deferred.isEmpty()) {
+                return;
+            }
+            probe = deferred.poll();
+        }
+        probe.run();
+    }
+
+    private double rate(boolean[] outcomes) {
+        if (recorded == 0) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < recorded; i++) {
+            if (outcomes[i]) {
+                count++;
+            }
+        }
+        return count / (double) recorded;
+    }
+
+    private void resetWindow() {
+        recorded = 0;
+        next = 0;
+    }
+
+    public static class Settings {
+        private final int windowSize;
+        private final int minimumCalls;
+        private final double failureRateThreshold;
+        private final long slowCallThresholdMs;
+        private final double slowCallRateThreshold;
+        private final long openDurationMs;
+
+        public Settings(int windowSize, int minimumCalls, double failureRateThreshold,
+                        long slowCallThresholdMs, double slowCallRateThreshold, long openDurationMs) {
+            this.windowSize = windowSize;
+            this.minimumCalls = minimumCalls;
+            this.failureRateThreshold = failureRateThreshold;
+            this.slowCallThresholdMs = slowCallThresholdMs;
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            this.openDurationMs = openDurationMs;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deliveries for one subscriber. At most {@code concurrencyLimit} of them run on the shared
+ * executor at a time, the rest wait here, so a slow endpoint only queues its own work. With a
+ * rate limit set, a delivery also waits for a token, and the lane wakes itself up when the next
+ * one is due.
+ */
+@Slf4j
+public class SubscriberLane {
+    private static final long REJECTED_RETRY_MS = 100;
+    private static final long NO_WAKE_UP = Long.MAX_VALUE;
+
+    private final Deque<Runnable> pending = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // System.nanoTime() of the earliest wake-up scheduled, or NO_WAKE_UP.
+    private final AtomicLong wakeUpAt = new AtomicLong(NO_WAKE_UP);
+    private final Executor executor;
+    private final TaskScheduler scheduler;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private volatile TokenBucket rateLimit;
+
+    public SubscriberLane(Executor executor, TaskScheduler scheduler, AdaptiveConcurrencyLimit concurrencyLimit) {
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    public void submit(Runnable delivery) {
+        pending.add(delivery);
+        drain();
+    }
+
+    /** Limits this lane to {@code permitsPerSecond}, or removes the limit when it is null. */
+    public void setRateLimit(Double permitsPerSecond, Integer burst) {
+        TokenBucket current = rateLimit;
+        if (permitsPerSecond == null) {
+            rateLimit = null;
+            return;
+        }
+        int capacity = burst != null ? burst : 1;
+        if (current == null || !current.hasSettings(permitsPerSecond, capacity)) {
+            rateLimit = new TokenBucket(permitsPerSecond, capacity);
+        }
+    }
+
+    /** Takes every delivery that has not started yet out of the lane. */
+    public List<Runnable> drainPending() {
+        List<Runnable> drained = new ArrayList<>();
+        for (Runnable delivery = pending.poll(); delivery != null; delivery = pending.poll()) {
+            drained.add(delivery);
+        }
+        return drained;
+    }
+
+    public int getPending() {
+        return pending.size();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getConcurrencyLimit() {
+        return concurrencyLimit.getLimit();
+    }
+
+    /** Feeds the outcome of a delivery that started at {@code startNanos} to the concurrency limit. */
+    public void onResult(long startNanos, long latencyMs, boolean overloaded) {
+        concurrencyLimit.onSample(startNanos, latencyMs, inFlight.get(), overloaded);
+    }
+
+    private void drain() {
+        while (!pending.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= concurrencyLimit.getLimit()) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable next = pending.poll();
+            if (next == null) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            TokenBucket bucket = rateLimit;
+            long waitNanos = bucket != null ? bucket.tryAcquire() : 0;
+            if (waitNanos > 0) {
+                putBack(next, waitNanos);
+                return;
+            }
+            try {
+                executor.execute(() -> run(next));
+            } catch (TaskRejectedException e) {
+                // The pool is saturated, which is when the subscriber's rate matters most.
+                if (bucket != null) {
+                    bucket.release();
+                }
+                log.warn("Webhook executor rejected delivery, retrying in {} ms", REJECTED_RETRY_MS, e);
+                putBack(next, TimeUnit.MILLISECONDS.toNanos(REJECTED_RETRY_MS));
+                return;
+            }
+        }
+    }
+
+    // Keeps the delivery first in line and gives its slot back until the lane wakes up again.
+    private void putBack(Runnable delivery, long waitNanos) {
+        pending.offerFirst(delivery);
+        inFlight.decrementAndGet();
+        wakeUpAfter(waitNanos);
+    }
+
+    // A wake-up due sooner than the pending one is scheduled as well; the later one then finds the
+    // lane already drained.
+    private void wakeUpAfter(long waitNanos) {
+        long deadline = System.nanoTime() + waitNanos;
+        while (true) {
+            long scheduled = wakeUpAt.get();
+            if (scheduled != NO_WAKE_UP && scheduled - deadline <= 0) {
+                return;
+            }
+            if (wakeUpAt.compareAndSet(scheduled, deadline)) {
+                scheduler.schedule(() -> {
+                    wakeUpAt.compareAndSet(deadline, NO_WAKE_UP);
+                    drain();
+                }, Instant.now().plusNanos(waitNanos));
+                return;
+            }
+        }
+    }
+
+    private void run(Runnable delivery) {
+        try {
+            delivery.run();
+        } finally {
+            inFlight.decrementAndGet();
+            drain();
+        }
+    }
+}
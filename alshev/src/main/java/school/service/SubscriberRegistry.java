@@ -0,0 +1,177 @@
+package school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import school.dto.SubscriberChange;
+import school.dto.SubscriberDto;
+import school.enums.SubscriberChangeType;
+import school.mapper.SubscriberMapper;
+import school.repository.SubscriberRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Subscribers held in memory and indexed by entity and event type. The table is read once;
+ * after that {@link SubscriberService} keeps the registry current, and changes made on other
+ * nodes arrive through the {@link SubscriberChangeBus}. Readers get an immutable snapshot
+ * without locking; writers rebuild the snapshot, which is cheap because subscriber changes are
+ * rare compared to school writes.
+ */
+@Slf4j
+@Component
+public class SubscriberRegistry {
+    private final SubscriberRepository subscriberRepository;
+    private final SubscriberMapper subscriberMapper;
+    private final SubscriberChangeBus changeBus;
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public SubscriberRegistry(
+            SubscriberRepository subscriberRepository,
+            SubscriberMapper subscriberMapper,
+            SubscriberChangeBus changeBus
+    ) {
+        this.subscriberRepository = subscriberRepository;
+        this.subscriberMapper = subscriberMapper;
+        this.changeBus = changeBus;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        current();
+    }
+
+    public List<SubscriberDto> getSubscribers(String entity, String eventType) {
+        return current().get(entity, eventType);
+    }
+
+    public boolean hasSubscribers(String entity, String eventType) {
+        return !getSubscribers(entity, eventType).isEmpty();
+    }
+
+    public Collection<SubscriberDto> getAll() {
+        return current().byId.values();
+    }
+
+    public long getVersion() {
+        return current().version;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void put(SubscriberDto subscriber) {
+        afterCommit(() -> update(subscriber.getId(), subscriber));
+        changeBus.publish(new SubscriberChange(SubscriberChangeType.UPSERT, subscriber.getId(), subscriber, nodeId));
+    }
+
+    public void remove(Long subscriberId) {
+        afterCommit(() -> update(subscriberId, null));
+        changeBus.publish(new SubscriberChange(SubscriberChangeType.REMOVE, subscriberId, null, nodeId));
+    }
+
+    public void apply(SubscriberChange change) {
+        if (change.getType() == SubscriberChangeType.REMOVE) {
+            update(change.getSubscriberId(), null);
+        } else {
+            update(change.getSubscriberId(), change.getSubscriber());
+        }
+    }
+
+    /** Reads the table again and returns the ids of the subscribers that are no longer in it. */
+    public synchronized Set<Long> reload() {
+        Map<Long, SubscriberDto> byId = new HashMap<>();
+        subscriberRepository.findAll().forEach(entity -> byId.put(entity.getId(), subscriberMapper.toDto(entity)));
+        Set<Long> removed = new HashSet<>();
+        if (snapshot != null) {
+            removed.addAll(snapshot.byId.keySet());
+            removed.removeAll(byId.keySet());
+        }
+        long version = snapshot == null ? 1 : snapshot.version + 1;
+        snapshot = new Snapshot(byId, version);
+        log.info("Loaded {} subscribers", byId.size());
+        return removed;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private synchronized void update(Long subscriberId, SubscriberDto subscriber) {
+        Snapshot current = current();
+        Map<Long, SubscriberDto> byId = new HashMap<>(current.byId);
+        if (subscriber == null) {
+            byId.remove(subscriberId);
+        } else {
+            byId.put(subscriberId, subscriber);
+        }
+        snapshot = new Snapshot(byId, current.version + 1);
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private static final class Snapshot {
+        private final Map<Long, SubscriberDto> byId;
+        private final Map<String, Map<String, List<SubscriberDto>>> byEntityAndEvent;
+        private final long version;
+
+        private Snapshot(Map<Long, SubscriberDto> byId, long version) {
+            this.byId = Collections.unmodifiableMap(byId);
+            this.version = version;
+            Map<String, Map<String, List<SubscriberDto>>> index = new HashMap<>();
+            for (SubscriberDto subscriber : byId.values()) {
+                index.computeIfAbsent(subscriber.getEntity(), entity -> new HashMap<>())
+                        .computeIfAbsent(subscriber.getEventType(), eventType -> new ArrayList<>())
+                        .add(subscriber);
+            }
+            this.byEntityAndEvent = index.entrySet().stream().collect(Collectors.toMap(
+                    Map.Entry::getKey,
+                    byEvent -> byEvent.getValue().entrySet().stream().collect(Collectors.toMap(
+                            Map.Entry::getKey,
+                            subscribers -> Collections.unmodifiableList(subscribers.getValue())
+                    ))
+            ));
+        }
+
+        private List<SubscriberDto> get(String entity, String eventType) {
+            return byEntityAndEvent.getOrDefault(entity, Collections.emptyMap())
+                    .getOrDefault(eventType, Collections.emptyList());
+        }
+    }
+}
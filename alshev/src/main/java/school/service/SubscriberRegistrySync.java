@@ -0,0 +1,54 @@
+package school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import school.dto.SubscriberChange;
+import school.enums.SubscriberChangeType;
+
+@Slf4j
+@Component
+public class SubscriberRegistrySync implements SubscriberChangeBus.Listener {
+    private final SubscriberRegistry subscriberRegistry;
+    private final SubscriberChangeBus changeBus;
+    private final ThreadService threadService;
+
+    @Autowired
+    public SubscriberRegistrySync(
+            SubscriberRegistry subscriberRegistry,
+            SubscriberChangeBus changeBus,
+            ThreadService threadService
+    ) {
+        this.subscriberRegistry = subscriberRegistry;
+        this.changeBus = changeBus;
+        this.threadService = threadService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        changeBus.subscribe(this);
+    }
+
+    @Override
+    public void onChange(SubscriberChange change) {
+        if (subscriberRegistry.getNodeId().equals(change.getOrigin())) {
+            return;
+        }
+        log.info("Applying subscriber change from node {}: {} {}", change.getOrigin(), change.getType(), change.getSubscriberId());
+        subscriberRegistry.apply(change);
+        if (change.getType() == SubscriberChangeType.REMOVE) {
+            threadService.removeSubscriber(change.getSubscriberId());
+        }
+    }
+
+    // Removals missed while the bus was down are only seen here, so their deliveries are cancelled too.
+    @Override
+    public void onResync() {
+        for (Long subscriberId : subscriberRegistry.reload()) {
+            log.info("Subscriber {} was removed while changes were not received", subscriberId);
+            threadService.removeSubscriber(subscriberId);
+        }
+    }
+}
@@ -5,6 +5,8 @@ import org.apache.commons.validator.routines.UrlValidator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import school.dto.SubscriberDto;
 import school.entity.SubscriberEntity;
 import school.exception.SubscriberNotFoundException;
@@ -23,14 +25,17 @@ import java.util.stream.Collectors;
 public class SubscriberService {
     private final SubscriberRepository subscriberRepository;
     private final ThreadService threadService;
+    private final SubscriberRegistry subscriberRegistry;
     private final SubscriberMapper subscriberMapper;
 
     @Autowired
     public SubscriberService(SubscriberRepository subscriberRepository,
                              ThreadService threadService,
+                             SubscriberRegistry subscriberRegistry,
                              SubscriberMapper subscriberMapper) {
         this.subscriberRepository = subscriberRepository;
         this.threadService = threadService;
+        this.subscriberRegistry = subscriberRegistry;
         this.subscriberMapper = subscriberMapper;
     }
     private static final UrlValidator URL_VALIDATOR = new UrlValidator(
@@ -52,16 +57,25 @@ public class SubscriberService {
                         .orElse(SubscriberDto.EVENT_ON_CREATE)
         );
         entity.setUrl(subscriberDto.getUrl());
+        entity.setBatchSize(subscriberDto.getBatchSize());
+        entity.setBatchLingerMs(subscriberDto.getBatchLingerMs());
+        if (hasRateLimit(subscriberDto.getRateLimitPerSecond())) {
+            entity.setRateLimitPerSecond(subscriberDto.getRateLimitPerSecond());
+            entity.setRateLimitBurst(subscriberDto.getRateLimitBurst());
+        }
         entity.setCreatedAt(LocalDateTime.now());
 
+        SubscriberEntity savedEntity;
         try {
-            return subscriberRepository.save(entity);
+            savedEntity = subscriberRepository.save(entity);
         } catch (DataAccessException e) {
             throw new SubscriberServiceException(
                     "Error creating subscriber: invalid URL",
                     e
             );
         }
+        subscriberRegistry.put(subscriberMapper.toDto(savedEntity));
+        return savedEntity;
     }
 
     @Transactional
@@ -85,12 +99,35 @@ public class SubscriberService {
                 Optional.ofNullable(subscriberDto.getUrl())
                         .orElse(existingEntity.getUrl())
         );
+        existingEntity.setBatchSize(
+                Optional.ofNullable(subscriberDto.getBatchSize())
+                        .orElse(existingEntity.getBatchSize())
+        );
+        existingEntity.setBatchLingerMs(
+                Optional.ofNullable(subscriberDto.getBatchLingerMs())
+                        .orElse(existingEntity.getBatchLingerMs())
+        );
+        existingEntity.setRateLimitPerSecond(
+                Optional.ofNullable(subscriberDto.getRateLimitPerSecond())
+                        .orElse(existingEntity.getRateLimitPerSecond())
+        );
+        existingEntity.setRateLimitBurst(
+                Optional.ofNullable(subscriberDto.getRateLimitBurst())
+                        .orElse(existingEntity.getRateLimitBurst())
+        );
+        if (!hasRateLimit(existingEntity.getRateLimitPerSecond())) {
+            existingEntity.setRateLimitPerSecond(null);
+            existingEntity.setRateLimitBurst(null);
+        }
 
+        SubscriberEntity savedEntity;
         try {
-            return subscriberRepository.save(existingEntity);
+            savedEntity = subscriberRepository.save(existingEntity);
         } catch (DataAccessException e) {
             throw new SubscriberServiceException("Subscriber update error", e);
         }
+        subscriberRegistry.put(subscriberMapper.toDto(savedEntity));
+        return savedEntity;
     }
     @Transactional
     public void deleteSubscriber(Long id) {
@@ -99,10 +136,12 @@ public class SubscriberService {
 
         try {
             subscriberRepository.delete(existingEntity);
-            threadService.removeSubscriber(id);
+            subscriberRegistry.remove(id);
         } catch (DataAccessException e) {
             throw new SubscriberServiceException("Error deleting subscriber due to data access issue", e);
         }
+        // Cancelling deliveries cannot be undone, so it waits until the delete has committed.
+        afterCommit(() -> threadService.removeSubscriber(id));
     }
 
 
@@ -132,4 +171,22 @@ public class SubscriberService {
         }
     }
 
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // A rate limit of 0 is how a client removes the limit; it is stored as no limit.
+    private static boolean hasRateLimit(Double rateLimitPerSecond) {
+        return rateLimitPerSecond != null && rateLimitPerSecond > 0;
+    }
+
 }
\ No newline at end of file
@@ -1,104 +1,133 @@
 package school.service;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import school.dto.SchoolEntityDTO;
-import school.dto.SchoolUpdateDto;
-import school.dto.SubscriberDto;
-import school.entity.SubscriberEntity;
-import school.exception.SubscriberNotFoundException;
+import school.dto.NotificationQueueStatsDto;
+import school.dto.NotificationEvent;
 import school.exception.ThreadServiceException;
-import school.mapper.SubscriberMapper;
-import school.repository.NotificationStatusRepository;
-import school.repository.SubscriberRepository;
-
-import java.util.List;
-import java.util.stream.Collectors;
 
+/**
+ * Fans events out on {@code notification.dispatch.partitions} dispatcher threads. Events are
+ * routed by school id, so all events of a school go through one partition in the order they were
+ * dispatched, while different schools are fanned out in parallel. The relay dispatches outbox rows
+ * by their {@code created_at}, which is set by the application when the row is written, so the
+ * order is that of the writing nodes' clocks rather than of commits. It holds a school's later rows
+ * back while an earlier one is still being delivered or has been released, so a released event is
+ * never delivered after a newer one.
+ */
 @Service
 @Slf4j
 public class ThreadService {
-    private SchoolNotificationThread schoolNotificationThread = null;
-    private final SubscriberRepository subscriberRepository;
-    private final SubscriberMapper subscriberMapper;
-    private final SchoolNotificationSender notificationSender;
-    private final NotificationStatusRepository notificationStatusRepository;
-    private final NotificationStatusService notificationStatusService;
+    private volatile SchoolNotificationThread[] partitions = null;
+    private final SubscriberRegistry subscriberRegistry;
+    private final WebhookDispatcher webhookDispatcher;
+    private final NotificationMetrics metrics;
+    private final int partitionCount;
+    private final int partitionCapacity;
 
     @Autowired
     public ThreadService(
-            SubscriberRepository subscriberRepository,
-            SubscriberMapper subscriberMapper,
-            SchoolNotificationSender notificationSender,
-            NotificationStatusRepository notificationStatusRepository,
-            NotificationStatusService notificationStatusService
+            SubscriberRegistry subscriberRegistry,
+            WebhookDispatcher webhookDispatcher,
+            NotificationMetrics metrics,
+            @Value("${notification.queue.capacity:10000}") int queueCapacity,
+            @Value("${notification.dispatch.partitions:4}") int partitionCount
     ) {
-        this.subscriberRepository = subscriberRepository;
-        this.subscriberMapper = subscriberMapper;
-        this.notificationSender = notificationSender;
-        this.notificationStatusRepository = notificationStatusRepository;
-        this.notificationStatusService = notificationStatusService;
+        this.subscriberRegistry = subscriberRegistry;
+        this.webhookDispatcher = webhookDispatcher;
+        this.metrics = metrics;
+        this.partitionCount = Math.max(1, partitionCount);
+        this.partitionCapacity = Math.max(1, queueCapacity / this.partitionCount);
+
+        for (int i = 0; i < this.partitionCount; i++) {
+            int partition = i;
+            metrics.registerGauge("notification.queue.depth", "Events waiting for fan-out", () -> {
+                SchoolNotificationThread[] threads = partitions;
+                return threads == null ? 0 : threads[partition].getQueueDepth();
+            }, "partition", String.valueOf(partition));
+        }
+        metrics.registerGauge("notification.queue.capacity", "Capacity of the fan-out queues",
+                () -> partitionCapacity * this.partitionCount);
     }
     private void checkAndStart() {
-        if (schoolNotificationThread == null) {
-            schoolNotificationThread = new SchoolNotificationThread(
-                    notificationSender,
-                    notificationStatusService
-            );
-            List<SubscriberDto> subscribers = getSubscribers();
-
-            for (SubscriberDto subscriber : subscribers) {
-                if (SubscriberDto.EVENT_ON_CREATE.equals(subscriber.getEventType()) ||
-                        SubscriberDto.EVENT_ON_UPDATE.equals(subscriber.getEventType()) ||
-                        SubscriberDto.EVENT_ON_DELETE.equals(subscriber.getEventType())) {
-                    schoolNotificationThread.addSubscriber(subscriber);
+        if (partitions != null) {
+            return;
+        }
+        synchronized (this) {
+            if (partitions == null) {
+                SchoolNotificationThread[] threads = new SchoolNotificationThread[partitionCount];
+                for (int i = 0; i < partitionCount; i++) {
+                    threads[i] = new SchoolNotificationThread(
+                            "school-notification-dispatcher-" + i,
+                            subscriberRegistry,
+                            webhookDispatcher,
+                            metrics,
+                            partitionCapacity
+                    );
+                    threads[i].start();
                 }
+                partitions = threads;
             }
+        }
+    }
 
-            schoolNotificationThread.start();
+    @PreDestroy
+    public void shutdown() {
+        SchoolNotificationThread[] threads = partitions;
+        if (threads != null) {
+            for (SchoolNotificationThread thread : threads) {
+                thread.interrupt();
+            }
         }
     }
 
-    public void addSubscriber(SubscriberDto subscriberDto) {
+    public NotificationQueueStatsDto getQueueStats() {
         checkAndStart();
-        try {
-            schoolNotificationThread.addSubscriber(subscriberDto);
-        } catch (RuntimeException e) {
-            throw new ThreadServiceException("Error adding subscriber", e);
+        NotificationQueueStatsDto total = new NotificationQueueStatsDto();
+        double totalLatencyMs = 0;
+        for (SchoolNotificationThread thread : partitions) {
+            NotificationQueueStatsDto stats = thread.getStats();
+            total.setQueueDepth(total.getQueueDepth() + stats.getQueueDepth());
+            total.setQueueCapacity(total.getQueueCapacity() + stats.getQueueCapacity());
+            total.setDispatchedEvents(total.getDispatchedEvents() + stats.getDispatchedEvents());
+            total.setMaxDispatchLatencyMs(Math.max(total.getMaxDispatchLatencyMs(), stats.getMaxDispatchLatencyMs()));
+            totalLatencyMs += stats.getAverageDispatchLatencyMs() * stats.getDispatchedEvents();
+        }
+        if (total.getDispatchedEvents() > 0) {
+            total.setAverageDispatchLatencyMs(totalLatencyMs / total.getDispatchedEvents());
         }
+        total.setPartitions(partitionCount);
+        return total;
     }
 
     public void removeSubscriber(Long subscriberId) {
-        checkAndStart();
         try {
-            schoolNotificationThread.removeSubscriber(subscriberId);
-        } catch (SubscriberNotFoundException e) {
-            throw e;
+            webhookDispatcher.removeSubscriber(subscriberId);
         } catch (RuntimeException e) {
             throw new ThreadServiceException("Error removing subscriber", e);
         }
     }
 
-    public List<SubscriberDto> getSubscribers() {
-        List<SubscriberEntity> subscriberEntities = subscriberRepository.findByEntity(SubscriberDto.ENTITY_SCHOOL);
-
-        return subscriberEntities.stream()
-                .map(subscriberMapper::toDto)
-                .collect(Collectors.toList());
+    public void dispatch(NotificationEvent event) {
+        checkAndStart();
+        partitions[partitionOf(event.getSchoolId())].enqueue(event);
     }
 
-public void addSchoolCreated(SchoolEntityDTO schoolEntityDTO, SubscriberDto subscriber) {
-    checkAndStart();
-    schoolNotificationThread.addSchoolCreated(schoolEntityDTO);
-}
-    public void addSchoolUpdated(SchoolUpdateDto schoolUpdateDto) {
+    // Any partition may receive the next event, so the fullest one bounds what can be enqueued without blocking.
+    public int getRemainingCapacity() {
         checkAndStart();
-        schoolNotificationThread.addSchoolUpdated(schoolUpdateDto);
+        int remaining = Integer.MAX_VALUE;
+        for (SchoolNotificationThread thread : partitions) {
+            remaining = Math.min(remaining, thread.getRemainingCapacity());
+        }
+        return remaining;
     }
 
-    public void addSchoolDeleted(SchoolEntityDTO schoolEntityDTO) {
-        checkAndStart();
-        schoolNotificationThread.addSchoolDeleted(schoolEntityDTO);
+    // An event without a school id has no order to keep, so any fixed partition will do.
+    private int partitionOf(Long schoolId) {
+        return schoolId == null ? 0 : Math.floorMod(Long.hashCode(schoolId), partitionCount);
     }
-}
\ No newline at end of file
+}
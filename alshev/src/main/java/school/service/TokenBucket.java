@@ -0,0 +1,60 @@
+package school.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket refilled at {@code permitsPerSecond} and holding up to {@code burst}
+ * tokens. Kept as a single "theoretical arrival time" (GCRA): the bucket is full when it lies in
+ * the past, and every permit pushes it one interval further.
+ */
+public class TokenBucket {
+    private final double permitsPerSecond;
+    private final int burst;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong arrival;
+    private final LongSupplier nanoClock;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.toleranceNanos = (burst - 1) * intervalNanos;
+        this.nanoClock = nanoClock;
+        this.arrival = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Takes a token if one is available and returns 0, otherwise returns how many nanoseconds
+     * until the next one is.
+     */
+    public long tryAcquire() {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = arrival.get();
+            long base = current - now > 0 ? current : now;
+            long waitNanos = base - now - toleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (arrival.compareAndSet(current, base + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /** Gives back a token taken by {@link #tryAcquire} for a delivery that did not go out. */
+    public void release() {
+        arrival.addAndGet(-intervalNanos);
+    }
+
+    public boolean hasSettings(double permitsPerSecond, int burst) {
+        return this.permitsPerSecond == permitsPerSecond && this.burst == burst;
+    }
+}
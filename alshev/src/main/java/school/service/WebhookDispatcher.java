@@ -0,0 +1,377 @@
+package school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import school.dto.NotificationBatch;
+import school.dto.NotificationEvent;
+import school.dto.NotificationTask;
+import school.dto.SubscriberDto;
+import school.exception.NotificationProcessingException;
+import school.exception.NotificationSendingException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+@Slf4j
+@Service
+public class WebhookDispatcher {
+    private static final String DELIVERED = "доставлено";
+    private static final String NOT_DELIVERED = "не доставлено";
+    private static final String CANCELLED = "отменено";
+    private static final String CONCURRENCY_LIMIT_GAUGE = "notification.delivery.concurrency.limit";
+    private final TaskExecutor taskExecutor;
+    private final SchoolNotificationSender notificationSender;
+    private final NotificationStatusService notificationStatusService;
+    private final AdaptiveConcurrencyLimit.Settings concurrencySettings;
+    private final WebhookRetryScheduler retryScheduler;
+    private final TaskScheduler scheduler;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final DeliveryLogService deliveryLogService;
+    private final NotificationMetrics metrics;
+    private final ConcurrentHashMap<Long, SubscriberLane> lanes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, SubscriberBatcher> batchers = new ConcurrentHashMap<>();
+    private final DeliverySequencer sequencer = new DeliverySequencer();
+    // Removal time by subscriber id, kept long enough for retries and late submits to be cancelled.
+    private final ConcurrentHashMap<Long, Long> removedSubscribers = new ConcurrentHashMap<>();
+    private final long removedSubscriberRetentionMs;
+
+    @Autowired
+    public WebhookDispatcher(
+            @Qualifier("taskExecutor") TaskExecutor taskExecutor,
+            SchoolNotificationSender notificationSender,
+            NotificationStatusService notificationStatusService,
+            WebhookRetryScheduler retryScheduler,
+            @Qualifier("retryScheduler") TaskScheduler scheduler,
+            CircuitBreakerRegistry circuitBreakers,
+            DeliveryLogService deliveryLogService,
+            NotificationMetrics metrics,
+            @Value("${notification.delivery.max-concurrency-per-subscriber:4}") int maxConcurrencyPerSubscriber,
+            @Value("${notification.delivery.adaptive-concurrency.enabled:true}") boolean adaptiveConcurrency,
+            @Value("${notification.delivery.adaptive-concurrency.max-limit:64}") int maxConcurrencyLimit,
+            @Value("${notification.delivery.adaptive-concurrency.latency-tolerance:2.0}") double latencyTolerance,
+            @Value("${notification.delivery.adaptive-concurrency.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${notification.delivery.removed-subscriber-retention-ms:600000}") long removedSubscriberRetentionMs
+    ) {
+        this.taskExecutor = taskExecutor;
+        this.notificationSender = notificationSender;
+        this.notificationStatusService = notificationStatusService;
+        this.retryScheduler = retryScheduler;
+        this.scheduler = scheduler;
+        this.circuitBreakers = circuitBreakers;
+        this.deliveryLogService = deliveryLogService;
+        this.metrics = metrics;
+        this.removedSubscriberRetentionMs = removedSubscriberRetentionMs;
+        this.concurrencySettings = new AdaptiveConcurrencyLimit.Settings(
+                adaptiveConcurrency,
+                maxConcurrencyPerSubscriber,
+                1,
+                Math.max(maxConcurrencyPerSubscriber, maxConcurrencyLimit),
+                latencyTolerance,
+                backoffRatio
+        );
+
+        metrics.registerGauge(
+                "notification.delivery.waiting",
+                "Deliveries waiting for an earlier delivery about the same school to finish",
+                sequencer::getWaitingCount
+        );
+    }
+
+    public void submit(NotificationTask task) {
+        SubscriberDto subscriber = task.getSubscriberDto();
+        if (isRemoved(subscriber.getId())) {
+            finish(task, CANCELLED, task.getAttempts());
+        } else if (subscriber.isBatching()) {
+            batcherFor(subscriber).add(task);
+        } else {
+            flushBatcher(subscriber.getId());
+            sequencer.submit(subscriber.getId(), task.getSchoolId(), () -> enqueue(task));
+        }
+    }
+
+    // Rendered once before fan-out so every subscriber and retry posts the same bytes.
+    public void render(NotificationEvent event) {
+        event.setPayload(notificationSender.render(event));
+    }
+
+    /**
+     * Cancels the subscriber's waiting deliveries: those in its batcher, lane and circuit breaker
+     * now, and retries or late submits as they arrive. Each one still gets a status and finishes,
+     * so its event completes and its sequencer key is released. Deliveries already in flight end
+     * normally. The removal is remembered for
+     * {@code notification.delivery.removed-subscriber-retention-ms}, which has to outlast the
+     * longest retry schedule.
+     */
+    public void removeSubscriber(Long subscriberId) {
+        long now = System.currentTimeMillis();
+        removedSubscribers.values().removeIf(removedAt -> now - removedAt > removedSubscriberRetentionMs);
+        removedSubscribers.put(subscriberId, now);
+        flushBatcher(subscriberId);
+        SubscriberLane lane = lanes.get(subscriberId);
+        if (lane != null) {
+            discardLane(subscriberId, lane);
+        }
+        circuitBreakers.remove(subscriberId).forEach(Runnable::run);
+        metrics.removeSubscriber(subscriberId);
+    }
+
+    private boolean isRemoved(Long subscriberId) {
+        return removedSubscribers.containsKey(subscriberId);
+    }
+
+    private void discardLane(Long subscriberId, SubscriberLane lane) {
+        if (lanes.remove(subscriberId, lane)) {
+            metrics.removeGauge(CONCURRENCY_LIMIT_GAUGE, "subscriber", String.valueOf(subscriberId));
+        }
+        lane.drainPending().forEach(Runnable::run);
+    }
+
+    private void enqueue(NotificationTask task) {
+        enqueue(
+                task.getSubscriberDto(),
+                (lane, breaker) -> processNotification(task, lane, breaker),
+                () -> complete(task, CANCELLED, task.getAttempts())
+        );
+    }
+
+    private void enqueue(NotificationBatch batch) {
+        enqueue(
+                batch.getSubscriberDto(),
+                (lane, breaker) -> processBatch(batch, lane, breaker),
+                () -> complete(batch, CANCELLED, batch.getAttempts())
+        );
+    }
+
+    // The lane and breaker are looked up here only, and handed to the delivery, so a delivery that
+    // is in flight when its subscriber is removed never creates them again. A removal that races a
+    // lookup is caught by the check after it.
+    private void enqueue(
+            SubscriberDto subscriber,
+            BiConsumer<SubscriberLane, SubscriberCircuitBreaker> delivery,
+            Runnable cancel
+    ) {
+        Long subscriberId = subscriber.getId();
+        if (isRemoved(subscriberId)) {
+            cancel.run();
+            return;
+        }
+        SubscriberLane lane = laneFor(subscriber);
+        if (isRemoved(subscriberId)) {
+            discardLane(subscriberId, lane);
+            cancel.run();
+            return;
+        }
+        lane.submit(() -> {
+            if (isRemoved(subscriberId)) {
+                cancel.run();
+                return;
+            }
+            SubscriberCircuitBreaker breaker = circuitBreakers.forSubscriber(subscriberId);
+            if (isRemoved(subscriberId)) {
+                circuitBreakers.remove(subscriberId).forEach(Runnable::run);
+                cancel.run();
+            } else if (breaker.tryAcquire()) {
+                delivery.accept(lane, breaker);
+            } else {
+                breaker.defer(() -> enqueue(subscriber, delivery, cancel));
+            }
+        });
+    }
+
+    private SubscriberLane laneFor(SubscriberDto subscriber) {
+        // The gauge reads through the map, so it never holds on to a lane that has been replaced.
+        SubscriberLane lane = lanes.computeIfAbsent(subscriber.getId(), id -> {
+            metrics.registerGauge(
+                    CONCURRENCY_LIMIT_GAUGE,
+                    "Current concurrency limit of a subscriber's deliveries",
+                    () -> {
+                        SubscriberLane current = lanes.get(id);
+                        return current != null ? current.getConcurrencyLimit() : 0;
+                    },
+                    "subscriber", String.valueOf(id)
+            );
+            return new SubscriberLane(taskExecutor, scheduler, new AdaptiveConcurrencyLimit(concurrencySettings));
+        });
+        lane.setRateLimit(subscriber.getRateLimitPerSecond(), subscriber.getRateLimitBurst());
+        return lane;
+    }
+
+    // A batcher replaced because the subscriber changed is flushed before its replacement takes a
+    // task, so its deliveries reach the sequencer ahead of any later ones.
+    private SubscriberBatcher batcherFor(SubscriberDto subscriber) {
+        return batchers.compute(subscriber.getId(), (id, current) -> {
+            if (current != null && current.getSubscriber().equals(subscriber)) {
+                return current;
+            }
+            if (current != null) {
+                current.flush();
+            }
+            return new SubscriberBatcher(subscriber, scheduler, this::submitBatch);
+        });
+    }
+
+    // Hands on what a subscriber that no longer batches, or is removed, still has buffered.
+    private void flushBatcher(Long subscriberId) {
+        SubscriberBatcher batcher = batchers.remove(subscriberId);
+        if (batcher != null) {
+            batcher.flush();
+        }
+    }
+
+    private void submitBatch(NotificationBatch batch) {
+        SubscriberDto subscriber = batch.getSubscriberDto();
+        sequencer.submit(subscriber.getId(), null, () -> enqueue(batch));
+    }
+
+    public int sendNotification(NotificationTask task) throws NotificationProcessingException {
+        try {
+            return notificationSender.send(task);
+        } catch (NotificationProcessingException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new NotificationProcessingException("Error processing notification: " + task, e);
+        }
+    }
+
+    private void processNotification(NotificationTask task, SubscriberLane lane, SubscriberCircuitBreaker breaker) {
+        int attempt = task.nextAttempt();
+        long startNanos = System.nanoTime();
+        long start = System.currentTimeMillis();
+        try {
+            int httpStatus = sendNotification(task);
+            long duration = System.currentTimeMillis() - start;
+            lane.onResult(startNanos, duration, false);
+            breaker.onSuccess(duration);
+            deliveryLogService.recordSuccess(task, attempt, httpStatus, duration);
+            metrics.deliveryAttempted(task.getType(), true, duration);
+            subscriberCallTimed(task.getSubscriberDto().getId(), true, duration);
+        } catch (RuntimeException e) {
+            long duration = System.currentTimeMillis() - start;
+            lane.onResult(startNanos, duration, isOverload(e));
+            breaker.onFailure(duration);
+            deliveryLogService.recordFailure(task, attempt, duration, e);
+            metrics.deliveryAttempted(task.getType(), false, duration);
+            subscriberCallTimed(task.getSubscriberDto().getId(), false, duration);
+            if (retryScheduler.canRetry(attempt)) {
+                log.debug("Delivery of {} failed on attempt {}: {}", task, attempt, e.getMessage());
+                retryScheduled(task.getSubscriberDto().getId());
+                retryScheduler.schedule(() -> enqueue(task), attempt);
+                return;
+            }
+            log.warn("Giving up on {} after {} attempts", task, attempt, e);
+            complete(task, NOT_DELIVERED, attempt);
+            return;
+        }
+        complete(task, DELIVERED, attempt);
+    }
+
+    private void processBatch(NotificationBatch batch, SubscriberLane lane, SubscriberCircuitBreaker breaker) {
+        int attempt = batch.nextAttempt();
+        long startNanos = System.nanoTime();
+        long start = System.currentTimeMillis();
+        try {
+            int httpStatus = notificationSender.sendBatch(batch.getTasks(), batch.getSubscriberDto());
+            long duration = System.currentTimeMillis() - start;
+            lane.onResult(startNanos, duration, false);
+            breaker.onSuccess(duration);
+            batch.getTasks().forEach(task -> {
+                deliveryLogService.recordSuccess(task, attempt, httpStatus, duration);
+                metrics.deliveryAttempted(task.getType(), true, duration);
+            });
+            subscriberCallTimed(batch.getSubscriberDto().getId(), true, duration);
+        } catch (RuntimeException e) {
+            long duration = System.currentTimeMillis() - start;
+            lane.onResult(startNanos, duration, isOverload(e));
+            breaker.onFailure(duration);
+            batch.getTasks().forEach(task -> {
+                deliveryLogService.recordFailure(task, attempt, duration, e);
+                metrics.deliveryAttempted(task.getType(), false, duration);
+            });
+            subscriberCallTimed(batch.getSubscriberDto().getId(), false, duration);
+            if (retryScheduler.canRetry(attempt)) {
+                log.debug("Delivery of {} failed on attempt {}: {}", batch, attempt, e.getMessage());
+                retryScheduled(batch.getSubscriberDto().getId());
+                retryScheduler.schedule(() -> enqueue(batch), attempt);
+                return;
+            }
+            log.warn("Giving up on {} after {} attempts", batch, attempt, e);
+            complete(batch, NOT_DELIVERED, attempt);
+            return;
+        }
+        complete(batch, DELIVERED, attempt);
+    }
+
+    // Retries bypass the sequencer: the delivery keeps its place until it completes here.
+    private void complete(NotificationTask task, String status, int attempt) {
+        try {
+            finish(task, status, attempt);
+        } finally {
+            sequencer.release(task.getSubscriberDto().getId(), task.getSchoolId());
+        }
+    }
+
+    private void complete(NotificationBatch batch, String status, int attempt) {
+        try {
+            for (NotificationTask task : batch.getTasks()) {
+                try {
+                    finish(task, status, attempt);
+                } catch (RuntimeException e) {
+                    log.error("Failed to record status of {}", task, e);
+                }
+            }
+        } finally {
+            sequencer.release(batch.getSubscriberDto().getId(), null);
+        }
+    }
+
+    // Timeouts, connection errors, 5xx and 429 mean the endpoint is struggling; other 4xx say nothing about load.
+    private static boolean isOverload(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NotificationSendingException) {
+                Integer statusCode = ((NotificationSendingException) cause).getStatusCode();
+                return statusCode == null || statusCode == 429 || statusCode >= 500;
+            }
+        }
+        return false;
+    }
+
+    private static String outcomeOf(String status) {
+        if (DELIVERED.equals(status)) {
+            return "delivered";
+        }
+        return CANCELLED.equals(status) ? "cancelled" : "abandoned";
+    }
+
+    // Meters of a removed subscriber are dropped with it, and late deliveries must not bring them back.
+    private void subscriberCallTimed(Long subscriberId, boolean success, long duration) {
+        if (!isRemoved(subscriberId)) {
+            metrics.subscriberCallTimed(subscriberId, success, duration);
+        }
+    }
+
+    private void retryScheduled(Long subscriberId) {
+        if (!isRemoved(subscriberId)) {
+            metrics.retryScheduled(subscriberId);
+        }
+    }
+
+    // The task only counts as finished once its status is written, so the outbox row outlives a crash in between;
+    // if the write fails, the task fails and the row is left to be claimed again.
+    private void finish(NotificationTask task, String status, int attempt) {
+        Long subscriberId = task.getSubscriberDto().getId();
+        if (!isRemoved(subscriberId)) {
+            metrics.deliveryFinished(subscriberId, task.getType(), outcomeOf(status));
+        }
+        try {
+            notificationStatusService.saveNotificationStatus(task, status, attempt, task::finished, task::failed);
+        } catch (RuntimeException e) {
+            task.failed();
+            throw e;
+        }
+    }
+}
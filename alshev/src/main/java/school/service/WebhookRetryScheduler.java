@@ -0,0 +1,66 @@
+package school.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Re-submits failed deliveries after an exponential, jittered delay. Nothing blocks while
+ * waiting: the delivery is parked in the scheduler's delay queue, not on a worker thread.
+ */
+@Slf4j
+@Component
+public class WebhookRetryScheduler {
+    private final TaskScheduler retryScheduler;
+    private final int maxAttempts;
+    private final long initialDelayMs;
+    private final double multiplier;
+    private final long maxDelayMs;
+    private final double jitter;
+
+    @Autowired
+    public WebhookRetryScheduler(
+            @Qualifier("retryScheduler") TaskScheduler retryScheduler,
+            @Value("${notification.retry.max-attempts:3}") int maxAttempts,
+            @Value("${notification.retry.initial-delay-ms:1000}") long initialDelayMs,
+            @Value("${notification.retry.multiplier:2.0}") double multiplier,
+            @Value("${notification.retry.max-delay-ms:60000}") long maxDelayMs,
+            @Value("${notification.retry.jitter:0.5}") double jitter
+    ) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("notification.retry.max-attempts must be at least 1");
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("notification.retry.jitter must be between 0 and 1");
+        }
+        this.retryScheduler = retryScheduler;
+        this.maxAttempts = maxAttempts;
+        this.initialDelayMs = initialDelayMs;
+        this.multiplier = multiplier;
+        this.maxDelayMs = maxDelayMs;
+        this.jitter = jitter;
+    }
+
+    public boolean canRetry(int attempt) {
+        return attempt < maxAttempts;
+    }
+
+    public long delayMillis(int attempt) {
+        double backoff = initialDelayMs * Math.pow(multiplier, Math.max(0, attempt - 1));
+        long capped = (long) Math.min(backoff, maxDelayMs);
+        long spread = (long) (capped * jitter);
+        return capped - spread + (spread > 0 ? ThreadLocalRandom.current().nextLong(spread + 1) : 0);
+    }
+
+    public void schedule(Runnable retry, int attempt) {
+        long delay = delayMillis(attempt);
+        log.debug("Retrying delivery in {} ms (attempt {} of {})", delay, attempt + 1, maxAttempts);
+        retryScheduler.schedule(retry, Instant.now().plusMillis(delay));
+    }
+}
@@ -0,0 +1,62 @@
+package school;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookHttpConfigTest {
+    private final HttpServer server = startServer();
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void defaultWebhookRequestsStreamTheirBody() {
+        WebhookHttpConfig config = new WebhookHttpConfig();
+        RestTemplate restTemplate = config.webhookRestTemplate(
+                new RestTemplateBuilder(),
+                config.pooledWebhookRequestFactory(2000, 5000, 10000, 1000, 200, 20, 30000)
+        );
+        AtomicBoolean streaming = new AtomicBoolean();
+        URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/hook");
+
+        Integer status = restTemplate.execute(uri, HttpMethod.POST, request -> {
+            streaming.set(request instanceof StreamingHttpOutputMessage);
+            if (request instanceof StreamingHttpOutputMessage) {
+                ((StreamingHttpOutputMessage) request).setBody(out -> out.write("{}".getBytes(StandardCharsets.UTF_8)));
+            }
+        }, response -> response.getStatusCode().value());
+
+        assertThat(streaming).isTrue();
+        assertThat(status).isEqualTo(204);
+    }
+
+    private static HttpServer startServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/hook", exchange -> {
+                exchange.getRequestBody().readAllBytes();
+                exchange.sendResponseHeaders(204, -1);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
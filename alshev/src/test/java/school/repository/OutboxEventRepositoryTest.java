@@ -0,0 +1,149 @@
+package school.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+// Runs the claim query of OutboxEventRepository on a real Postgres, on two connections standing in
+// for two relay nodes. Postgres refuses to run as root, so the test is skipped there.
+class OutboxEventRepositoryTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private static EmbeddedPostgres postgres;
+
+    private final Connection nodeA = connect();
+    private final Connection nodeB = connect();
+
+    @BeforeAll
+    static void startPostgres() throws IOException, SQLException {
+        assumeFalse("root".equals(System.getProperty("user.name")), "Postgres does not run as root");
+        postgres = EmbeddedPostgres.builder().start();
+        File[] scripts = new File("../sql").listFiles((dir, name) -> name.endsWith(".sql"));
+        Arrays.sort(scripts);
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            for (File script : scripts) {
+                ScriptUtils.executeSqlScript(connection, new FileSystemResource(script));
+            }
+        }
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @AfterEach
+    void clear() throws SQLException {
+        nodeA.rollback();
+        nodeB.rollback();
+        nodeA.close();
+        nodeB.close();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            connection.createStatement().execute("DELETE FROM school_outbox");
+        }
+    }
+
+    @Test
+    void claimsASchoolsRowsTogetherInOrder() throws SQLException {
+        insert(1, "CREATE", 1);
+        insert(1, "DELETE", 2);
+        insert(2, "CREATE", 3);
+
+        assertThat(claim(nodeA, 10)).containsExactly("1:CREATE", "1:DELETE", "2:CREATE");
+    }
+
+    @Test
+    void doesNotClaimPastAnOlderRowAnotherNodeIsClaiming() throws SQLException {
+        insert(1, "CREATE", 1);
+        insert(1, "DELETE", 2);
+        insert(2, "CREATE", 3);
+
+        // Node A has locked school 1's first row but not committed its lease yet.
+        assertThat(claim(nodeA, 1)).containsExactly("1:CREATE");
+
+        assertThat(claim(nodeB, 10)).containsExactly("2:CREATE");
+    }
+
+    @Test
+    void doesNotClaimPastAnOlderRowLeasedByAnotherNode() throws SQLException {
+        insert(1, "CREATE", 1);
+        insert(1, "DELETE", 2);
+
+        assertThat(claim(nodeA, 1)).containsExactly("1:CREATE");
+        lease(nodeA);
+        nodeA.commit();
+
+        assertThat(claim(nodeB, 10)).isEmpty();
+    }
+
+    // Claimed rows are reported as school:event, in claim order.
+    private static List<String> claim(Connection node, int limit) {
+        return jdbc(node).query(lockNextBatchSql(), Map.of(
+                "now", NOW,
+                "updatesBefore", NOW,
+                "limit", limit
+        ), (row, i) -> row.getLong("school_id") + ":" + row.getString("event_type"));
+    }
+
+    private static void lease(Connection node) {
+        jdbc(node).update("UPDATE school_outbox SET locked_until = :lockedUntil WHERE school_id = 1 "
+                + "AND event_type = 'CREATE'", Map.of("lockedUntil", NOW.plusMinutes(5)));
+    }
+
+    private void insert(long schoolId, String eventType, int second) throws SQLException {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            jdbc(connection).update("INSERT INTO school_outbox (school_id, event_type, payload, created_at) "
+                    + "VALUES (:schoolId, :eventType, '{}', :createdAt)", Map.of(
+                    "schoolId", schoolId,
+                    "eventType", eventType,
+                    "createdAt", NOW.minusMinutes(1).plusSeconds(second)
+            ));
+        }
+    }
+
+    private static String lockNextBatchSql() {
+        try {
+            return OutboxEventRepository.class
+                    .getMethod("lockNextBatch", LocalDateTime.class, LocalDateTime.class, int.class)
+                    .getAnnotation(Query.class)
+                    .value();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static NamedParameterJdbcTemplate jdbc(Connection connection) {
+        return new NamedParameterJdbcTemplate(new SingleConnectionDataSource(connection, true));
+    }
+
+    private static Connection connect() {
+        try {
+            Connection connection = postgres.getPostgresDatabase().getConnection();
+            connection.setAutoCommit(false);
+            return connection;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package school.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+    private static final long FAST_MS = 20;
+
+    @Test
+    void startsAtTheInitialLimit() {
+        assertThat(limit(true, 4, 1, 64).getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void growsByAboutOnePerRoundWhileTheLimitIsInUse() {
+        AdaptiveConcurrencyLimit limit = limit(true, 4, 1, 64);
+
+        // Each sample adds 1 / limit, so one round of 4 deliveries adds just under one.
+        for (int i = 0; i < 4; i++) {
+            limit.onSample(startedNow(), FAST_MS, 4, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(4);
+
+        limit.onSample(startedNow(), FAST_MS, 4, false);
+        assertThat(limit.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void doesNotGrowWhileMostOfTheLimitIsUnused() {
+        AdaptiveConcurrencyLimit limit = limit(true, 8, 1, 64);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(startedNow(), FAST_MS, 3, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    void neverGrowsAboveTheMaximum() {
+        AdaptiveConcurrencyLimit limit = limit(true, 4, 1, 6);
+
+        for (int i = 0; i < 1000; i++) {
+            limit.onSample(startedNow(), FAST_MS, 6, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(6);
+    }
+
+    @Test
+    void backsOffOnOverload() {
+        AdaptiveConcurrencyLimit limit = limit(true, 10, 1, 64);
+
+        limit.onSample(startedNow(), FAST_MS, 10, true);
+
+        assertThat(limit.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    void backsOffOncePerRound() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = limit(true, 10, 1, 64);
+        long startedUnderOldLimit = startedNow();
+        // So the decrease is recorded strictly after this start.
+        TimeUnit.MILLISECONDS.sleep(1);
+
+        limit.onSample(startedUnderOldLimit, FAST_MS, 10, true);
+        limit.onSample(startedUnderOldLimit, FAST_MS, 10, true);
+        assertThat(limit.getLimit()).isEqualTo(9);
+
+        // A delivery started after the decrease counts again: 9 * 0.9.
+        limit.onSample(startedNow(), FAST_MS, 9, true);
+        assertThat(limit.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    void backsOffWhenLatencyExceedsTheBaselineTolerance() {
+        AdaptiveConcurrencyLimit limit = limit(true, 10, 1, 64);
+        limit.onSample(startedNow(), FAST_MS, 1, false);
+
+        limit.onSample(startedNow(), FAST_MS * 3, 10, false);
+
+        assertThat(limit.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    void ignoresSmallSlowdownsOfFastEndpoints() {
+        AdaptiveConcurrencyLimit limit = limit(true, 10, 1, 64);
+        limit.onSample(startedNow(), 1, 1, false);
+
+        // Five times the baseline, but only 4 ms slower.
+        limit.onSample(startedNow(), 5, 1, false);
+
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void neverBacksOffBelowTheMinimum() {
+        AdaptiveConcurrencyLimit limit = limit(true, 4, 2, 64);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(startedNow(), FAST_MS, 4, true);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void staysFixedWhenDisabled() {
+        AdaptiveConcurrencyLimit limit = limit(false, 4, 1, 64);
+
+        limit.onSample(startedNow(), FAST_MS, 4, true);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(startedNow(), FAST_MS, 4, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    // Strictly after anything the limit has seen, even if the clock has not ticked since.
+    private static long startedNow() {
+        return System.nanoTime() + 1;
+    }
+
+    private static AdaptiveConcurrencyLimit limit(boolean enabled, int initial, int min, int max) {
+        return new AdaptiveConcurrencyLimit(new AdaptiveConcurrencyLimit.Settings(enabled, initial, min, max, 2.0, 0.9));
+    }
+}
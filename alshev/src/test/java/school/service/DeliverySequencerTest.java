@@ -0,0 +1,95 @@
+package school.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeliverySequencerTest {
+    private final DeliverySequencer sequencer = new DeliverySequencer();
+    private final List<String> started = new ArrayList<>();
+
+    @Test
+    void startsTheFirstDeliveryOfAKeyAtOnce() {
+        sequencer.submit(1L, 7L, () -> started.add("first"));
+
+        assertThat(started).containsExactly("first");
+        assertThat(sequencer.getWaitingCount()).isZero();
+    }
+
+    @Test
+    void startsWaitersInSubmitOrderOneReleaseAtATime() {
+        sequencer.submit(1L, 7L, () -> started.add("first"));
+        sequencer.submit(1L, 7L, () -> started.add("second"));
+        sequencer.submit(1L, 7L, () -> started.add("third"));
+        assertThat(started).containsExactly("first");
+        assertThat(sequencer.getWaitingCount()).isEqualTo(2);
+
+        sequencer.release(1L, 7L);
+        assertThat(started).containsExactly("first", "second");
+
+        sequencer.release(1L, 7L);
+        assertThat(started).containsExactly("first", "second", "third");
+        assertThat(sequencer.getWaitingCount()).isZero();
+    }
+
+    @Test
+    void freesTheKeyOnceTheLastDeliveryIsReleased() {
+        sequencer.submit(1L, 7L, () -> started.add("first"));
+        sequencer.release(1L, 7L);
+
+        sequencer.submit(1L, 7L, () -> started.add("second"));
+
+        assertThat(started).containsExactly("first", "second");
+    }
+
+    @Test
+    void keepsOtherSchoolsAndSubscribersIndependent() {
+        sequencer.submit(1L, 7L, () -> started.add("subscriber 1, school 7"));
+        sequencer.submit(1L, 8L, () -> started.add("subscriber 1, school 8"));
+        sequencer.submit(2L, 7L, () -> started.add("subscriber 2, school 7"));
+
+        assertThat(started).hasSize(3);
+        assertThat(sequencer.getWaitingCount()).isZero();
+    }
+
+    @Test
+    void serializesASubscribersBatches() {
+        sequencer.submit(1L, null, () -> started.add("first batch"));
+        sequencer.submit(1L, null, () -> started.add("second batch"));
+        sequencer.submit(2L, null, () -> started.add("other subscriber's batch"));
+        assertThat(started).containsExactly("first batch", "other subscriber's batch");
+
+        sequencer.release(1L, null);
+
+        assertThat(started).containsExactly("first batch", "other subscriber's batch", "second batch");
+    }
+
+    @Test
+    void releasesTheKeyOfADeliveryThatFailsToStart() {
+        assertThatThrownBy(() -> sequencer.submit(1L, 7L, () -> {
+            throw new IllegalStateException("rejected");
+        })).isInstanceOf(IllegalStateException.class);
+
+        sequencer.submit(1L, 7L, () -> started.add("next"));
+
+        assertThat(started).containsExactly("next");
+    }
+
+    @Test
+    void startsTheNextWaiterWhenAWaiterFailsToStart() {
+        sequencer.submit(1L, 7L, () -> started.add("first"));
+        sequencer.submit(1L, 7L, () -> {
+            throw new IllegalStateException("rejected");
+        });
+        sequencer.submit(1L, 7L, () -> started.add("third"));
+
+        assertThatThrownBy(() -> sequencer.release(1L, 7L)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(started).containsExactly("first", "third");
+        assertThat(sequencer.getWaitingCount()).isZero();
+    }
+}
@@ -0,0 +1,146 @@
+package school.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import school.dto.SchoolNameAddressView;
+import school.repository.SchoolRepository;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SchoolDedupeFilterTest {
+    private static final int EXPECTED_INSERTIONS = 10_000;
+
+    private final SchoolRepository schoolRepository = mock(SchoolRepository.class);
+
+    @Test
+    void hasNoFalseNegatives() {
+        when(schoolRepository.streamNamesAndAddresses()).thenReturn(IntStream.range(0, 1000)
+                .mapToObj(i -> school("school " + i, "address " + i)));
+        SchoolDedupeFilter filter = filter(true);
+        filter.warmUp();
+        for (int i = 1000; i < EXPECTED_INSERTIONS; i++) {
+            filter.add("school " + i, "address " + i);
+        }
+
+        for (int i = 0; i < EXPECTED_INSERTIONS; i++) {
+            assertThat(filter.isDefinitelyNew("school " + i, "address " + i)).as("school %d", i).isFalse();
+        }
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheConfiguredRate() {
+        SchoolDedupeFilter filter = warmFilter();
+        for (int i = 0; i < EXPECTED_INSERTIONS; i++) {
+            filter.add("school " + i, "address " + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < EXPECTED_INSERTIONS; i++) {
+            if (!filter.isDefinitelyNew("other school " + i, "address " + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Configured for 1%.
+        assertThat(falsePositives).isLessThan(EXPECTED_INSERTIONS * 3 / 100);
+    }
+
+    @Test
+    void tellsNameAndAddressApart() {
+        SchoolDedupeFilter filter = warmFilter();
+        filter.add("ab", "c");
+
+        assertThat(filter.isDefinitelyNew("ab", "c")).isFalse();
+        assertThat(filter.isDefinitelyNew("a", "bc")).isTrue();
+    }
+
+    @Test
+    void answersNothingBeforeWarmUp() {
+        SchoolDedupeFilter filter = filter(true);
+
+        assertThat(filter.isDefinitelyNew("school", "address")).isFalse();
+    }
+
+    @Test
+    void answersNothingWhenDisabled() {
+        SchoolDedupeFilter filter = filter(false);
+        filter.warmUp();
+
+        assertThat(filter.isDefinitelyNew("school", "address")).isFalse();
+    }
+
+    @Test
+    void addressesBitsBeyondTheIntRange() {
+        // 2^31 - 1 words, the largest filter AtomicLongArray can hold.
+        long bitCount = (long) Integer.MAX_VALUE * 64;
+        SplittableRandom random = new SplittableRandom(17);
+        long highest = 0;
+        for (int n = 0; n < 100_000; n++) {
+            long hash = random.nextLong();
+            for (int i = 1; i <= 7; i++) {
+                long bit = SchoolDedupeFilter.index(hash, i, bitCount);
+                assertThat(bit).isBetween(0L, bitCount - 1);
+                assertThat(bit >>> 6).isLessThan(Integer.MAX_VALUE);
+                highest = Math.max(highest, bit);
+            }
+        }
+
+        // Indices reach the top of the filter, far above 2^31 bits.
+        assertThat(highest).isGreaterThan(bitCount - bitCount / 1000);
+    }
+
+    @Test
+    void spreadsIndicesOverEveryWordOfASmallFilter() {
+        long bitCount = 64 * 16;
+        boolean[] hit = new boolean[16];
+        SplittableRandom random = new SplittableRandom(17);
+        for (int n = 0; n < 1000; n++) {
+            long hash = random.nextLong();
+            for (int i = 1; i <= 3; i++) {
+                hit[(int) (SchoolDedupeFilter.index(hash, i, bitCount) >>> 6)] = true;
+            }
+        }
+
+        for (boolean wordHit : hit) {
+            assertThat(wordHit).isTrue();
+        }
+    }
+
+    private SchoolDedupeFilter warmFilter() {
+        when(schoolRepository.streamNamesAndAddresses()).thenReturn(Stream.empty());
+        SchoolDedupeFilter filter = filter(true);
+        filter.warmUp();
+        return filter;
+    }
+
+    // The mocked transaction manager returns no status, which TransactionTemplate passes through.
+    private SchoolDedupeFilter filter(boolean enabled) {
+        return new SchoolDedupeFilter(
+                schoolRepository,
+                mock(PlatformTransactionManager.class),
+                enabled,
+                EXPECTED_INSERTIONS,
+                0.01
+        );
+    }
+
+    private static SchoolNameAddressView school(String name, String address) {
+        return new SchoolNameAddressView() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getAddress() {
+                return address;
+            }
+        };
+    }
+}
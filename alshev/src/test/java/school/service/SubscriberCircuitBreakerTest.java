@@ -0,0 +1,149 @@
+package school.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+import school.enums.CircuitState;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+// Tests that do not wait out the open duration use one of an hour, so a pause in the test (class
+// loading, GC) cannot make a deferral send its own probe.
+class SubscriberCircuitBreakerTest {
+    private static final long SHORT_OPEN_DURATION_MS = 50;
+    private static final long LONG_OPEN_DURATION_MS = TimeUnit.HOURS.toMillis(1);
+    private static final long SLOW_CALL_MS = 1000;
+
+    private final TaskScheduler scheduler = mock(TaskScheduler.class);
+    private SubscriberCircuitBreaker breaker = breaker(LONG_OPEN_DURATION_MS);
+
+    @Test
+    void staysClosedUntilTheMinimumNumberOfCalls() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure(1);
+        }
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(state()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    void opensOnceTheFailureRateIsReached() {
+        breaker.onSuccess(1);
+        breaker.onSuccess(1);
+        breaker.onFailure(1);
+        assertThat(state()).isEqualTo(CircuitState.CLOSED);
+
+        breaker.onFailure(1);
+
+        assertThat(state()).isEqualTo(CircuitState.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        verify(scheduler).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void opensOnceTheSlowCallRateIsReached() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onSuccess(SLOW_CALL_MS);
+        }
+
+        assertThat(state()).isEqualTo(CircuitState.OPEN);
+    }
+
+    @Test
+    void letsOneProbeThroughOnceTheOpenDurationHasPassed() throws InterruptedException {
+        breaker = breaker(SHORT_OPEN_DURATION_MS);
+        open();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        TimeUnit.MILLISECONDS.sleep(SHORT_OPEN_DURATION_MS + 10);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(state()).isEqualTo(CircuitState.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void closesAndReplaysParkedDeliveriesWhenTheProbeSucceeds() throws InterruptedException {
+        breaker = breaker(SHORT_OPEN_DURATION_MS);
+        List<String> replayed = new ArrayList<>();
+        breaker.defer(() -> replayed.add("first"));
+        breaker.defer(() -> replayed.add("second"));
+        open();
+        TimeUnit.MILLISECONDS.sleep(SHORT_OPEN_DURATION_MS + 10);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onSuccess(1);
+
+        assertThat(state()).isEqualTo(CircuitState.CLOSED);
+        assertThat(replayed).containsExactly("first", "second");
+        assertThat(breaker.getHealth().getDeferredDeliveries()).isZero();
+        assertThat(breaker.getHealth().getFailureRate()).isZero();
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void reopensWhenTheProbeFails() throws InterruptedException {
+        breaker = breaker(SHORT_OPEN_DURATION_MS);
+        open();
+        TimeUnit.MILLISECONDS.sleep(SHORT_OPEN_DURATION_MS + 10);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure(1);
+
+        assertThat(state()).isEqualTo(CircuitState.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void scheduledProbeRunsTheFirstParkedDelivery() {
+        open();
+        ArgumentCaptor<Runnable> probe = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(probe.capture(), any(Instant.class));
+        List<String> ran = new ArrayList<>();
+        breaker.defer(() -> ran.add("first"));
+        breaker.defer(() -> ran.add("second"));
+
+        probe.getValue().run();
+
+        assertThat(ran).containsExactly("first");
+        assertThat(breaker.getHealth().getDeferredDeliveries()).isEqualTo(1);
+    }
+
+    @Test
+    void drainsParkedDeliveries() {
+        open();
+        breaker.defer(() -> { });
+        breaker.defer(() -> { });
+
+        assertThat(breaker.drainDeferred()).hasSize(2);
+        assertThat(breaker.getHealth().getDeferredDeliveries()).isZero();
+    }
+
+    private SubscriberCircuitBreaker breaker(long openDurationMs) {
+        return new SubscriberCircuitBreaker(
+                1L,
+                new SubscriberCircuitBreaker.Settings(10, 4, 0.5, SLOW_CALL_MS, 0.8, openDurationMs),
+                scheduler
+        );
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(1);
+        }
+        assertThat(state()).isEqualTo(CircuitState.OPEN);
+    }
+
+    private CircuitState state() {
+        return breaker.getHealth().getState();
+    }
+}
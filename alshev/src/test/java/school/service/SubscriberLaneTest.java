@@ -0,0 +1,90 @@
+package school.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// Deliveries run on the calling thread unless the executor is set to reject them.
+class SubscriberLaneTest {
+    private final TaskScheduler scheduler = mock(TaskScheduler.class);
+    private final List<String> ran = new ArrayList<>();
+    private boolean rejecting;
+    private final SubscriberLane lane = new SubscriberLane(
+            delivery -> {
+                if (rejecting) {
+                    throw new TaskRejectedException("saturated");
+                }
+                delivery.run();
+            },
+            scheduler,
+            new AdaptiveConcurrencyLimit(new AdaptiveConcurrencyLimit.Settings(false, 4, 1, 4, 2.0, 0.9))
+    );
+
+    @Test
+    void keepsARejectedDeliveryFirstInLineAndRunsItOnWakeUp() {
+        rejecting = true;
+        lane.submit(() -> ran.add("first"));
+        lane.submit(() -> ran.add("second"));
+        assertThat(lane.getPending()).isEqualTo(2);
+        assertThat(lane.getInFlight()).isZero();
+
+        rejecting = false;
+        wakeUp();
+
+        assertThat(ran).containsExactly("first", "second");
+    }
+
+    @Test
+    void givesTheTokenOfARejectedDeliveryBack() {
+        // One token an hour: if the rejected delivery kept its token, the wake-up would find none.
+        lane.setRateLimit(1.0 / 3600, 1);
+        rejecting = true;
+        lane.submit(() -> ran.add("rejected once"));
+
+        rejecting = false;
+        wakeUp();
+
+        assertThat(ran).containsExactly("rejected once");
+    }
+
+    @Test
+    void schedulesAnEarlierWakeUpWhileALaterOneIsPending() {
+        lane.setRateLimit(1.0 / 3600, 1);
+        lane.submit(() -> ran.add("first"));
+        lane.submit(() -> ran.add("waits for a token"));
+        lane.setRateLimit(null, null);
+        rejecting = true;
+        lane.submit(() -> ran.add("rejected"));
+
+        ArgumentCaptor<Instant> at = ArgumentCaptor.forClass(Instant.class);
+        verify(scheduler, times(2)).schedule(any(Runnable.class), at.capture());
+        assertThat(at.getAllValues().get(1)).isBefore(at.getAllValues().get(0));
+    }
+
+    @Test
+    void doesNotScheduleALaterWakeUpWhileAnEarlierOneIsPending() {
+        rejecting = true;
+        lane.submit(() -> ran.add("first"));
+        lane.setRateLimit(1.0 / 3600, 1);
+        lane.submit(() -> ran.add("second"));
+
+        verify(scheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    private void wakeUp() {
+        ArgumentCaptor<Runnable> wakeUp = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(wakeUp.capture(), any(Instant.class));
+        wakeUp.getValue().run();
+    }
+}
@@ -0,0 +1,70 @@
+package school.service;
+
+import org.junit.jupiter.api.Test;
+import school.dto.SubscriberDto;
+import school.entity.SubscriberEntity;
+import school.mapper.SubscriberMapper;
+import school.repository.SubscriberRepository;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SubscriberRegistrySyncTest {
+    private final SubscriberRepository subscriberRepository = mock(SubscriberRepository.class);
+    private final SubscriberMapper subscriberMapper = mock(SubscriberMapper.class);
+    private final ThreadService threadService = mock(ThreadService.class);
+    private final SubscriberRegistry subscriberRegistry = new SubscriberRegistry(
+            subscriberRepository,
+            subscriberMapper,
+            mock(SubscriberChangeBus.class)
+    );
+    private final SubscriberRegistrySync sync = new SubscriberRegistrySync(
+            subscriberRegistry,
+            mock(SubscriberChangeBus.class),
+            threadService
+    );
+
+    SubscriberRegistrySyncTest() {
+        when(subscriberMapper.toDto(any())).thenAnswer(invocation -> {
+            SubscriberEntity entity = invocation.getArgument(0);
+            SubscriberDto subscriber = new SubscriberDto();
+            subscriber.setId(entity.getId());
+            subscriber.setEntity("school");
+            subscriber.setEventType("create");
+            return subscriber;
+        });
+    }
+
+    @Test
+    void resyncCancelsTheDeliveriesOfSubscribersRemovedInTheMeantime() {
+        when(subscriberRepository.findAll()).thenReturn(List.of(entity(1L), entity(2L)));
+        subscriberRegistry.warmUp();
+
+        when(subscriberRepository.findAll()).thenReturn(List.of(entity(1L), entity(3L)));
+        sync.onResync();
+
+        verify(threadService).removeSubscriber(2L);
+        verify(threadService, never()).removeSubscriber(1L);
+    }
+
+    @Test
+    void firstLoadRemovesNothing() {
+        when(subscriberRepository.findAll()).thenReturn(List.of(entity(1L)));
+
+        sync.onResync();
+
+        verify(threadService, never()).removeSubscriber(anyLong());
+    }
+
+    private static SubscriberEntity entity(Long id) {
+        SubscriberEntity entity = new SubscriberEntity();
+        entity.setId(id);
+        return entity;
+    }
+}
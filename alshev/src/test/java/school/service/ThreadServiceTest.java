@@ -0,0 +1,123 @@
+package school.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import school.dto.NotificationEvent;
+import school.dto.NotificationTask;
+import school.dto.SchoolEntityDTO;
+import school.dto.SubscriberDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ThreadServiceTest {
+    private static final int PARTITIONS = 4;
+    private static final int SCHOOLS = 10;
+    private static final int EVENTS_PER_SCHOOL = 50;
+
+    private final SubscriberRegistry subscriberRegistry = mock(SubscriberRegistry.class);
+    private final WebhookDispatcher webhookDispatcher = mock(WebhookDispatcher.class);
+    private final ThreadService threadService = new ThreadService(
+            subscriberRegistry,
+            webhookDispatcher,
+            new NotificationMetrics(new SimpleMeterRegistry()),
+            SCHOOLS * EVENTS_PER_SCHOOL,
+            PARTITIONS
+    );
+    private final List<Submitted> submitted = new ArrayList<>();
+
+    ThreadServiceTest() {
+        SubscriberDto subscriber = new SubscriberDto();
+        subscriber.setId(1L);
+        when(subscriberRegistry.getSubscribers(anyString(), anyString())).thenReturn(List.of(subscriber));
+    }
+
+    @AfterEach
+    void shutdown() {
+        threadService.shutdown();
+    }
+
+    @Test
+    void dispatchesEachSchoolOnOnePartitionInOrder() throws InterruptedException {
+        CountDownLatch done = recordSubmits(SCHOOLS * EVENTS_PER_SCHOOL);
+
+        long outboxId = 0;
+        for (int i = 0; i < EVENTS_PER_SCHOOL; i++) {
+            for (long school = 1; school <= SCHOOLS; school++) {
+                threadService.dispatch(event(school, ++outboxId));
+            }
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        Map<Long, List<Long>> outboxIdsBySchool = new HashMap<>();
+        Map<Long, Set<String>> threadsBySchool = new HashMap<>();
+        Set<String> threads = new HashSet<>();
+        synchronized (submitted) {
+            for (Submitted submit : submitted) {
+                outboxIdsBySchool.computeIfAbsent(submit.schoolId, id -> new ArrayList<>()).add(submit.outboxId);
+                threadsBySchool.computeIfAbsent(submit.schoolId, id -> new HashSet<>()).add(submit.thread);
+                threads.add(submit.thread);
+            }
+        }
+        assertThat(outboxIdsBySchool).hasSize(SCHOOLS);
+        outboxIdsBySchool.values().forEach(ids -> assertThat(ids).hasSize(EVENTS_PER_SCHOOL).isSorted());
+        threadsBySchool.values().forEach(schoolThreads -> assertThat(schoolThreads).hasSize(1));
+        assertThat(threads).hasSize(PARTITIONS);
+    }
+
+    @Test
+    void dispatchesEventsWithoutASchoolId() throws InterruptedException {
+        CountDownLatch done = recordSubmits(1);
+
+        threadService.dispatch(event(null, 1L));
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private CountDownLatch recordSubmits(int expected) {
+        CountDownLatch done = new CountDownLatch(expected);
+        doAnswer(invocation -> {
+            NotificationTask task = invocation.getArgument(0);
+            synchronized (submitted) {
+                submitted.add(new Submitted(task.getSchoolId(), task.getEventId(), Thread.currentThread().getName()));
+            }
+            done.countDown();
+            return null;
+        }).when(webhookDispatcher).submit(any());
+        return done;
+    }
+
+    private static NotificationEvent event(Long schoolId, long outboxId) {
+        SchoolEntityDTO school = new SchoolEntityDTO();
+        school.setId(schoolId);
+        NotificationEvent event = NotificationEvent.created(school);
+        event.setOutboxId(outboxId);
+        return event;
+    }
+
+    private static final class Submitted {
+        private final Long schoolId;
+        private final Long outboxId;
+        private final String thread;
+
+        private Submitted(Long schoolId, Long outboxId, String thread) {
+            this.schoolId = schoolId;
+            this.outboxId = outboxId;
+            this.thread = thread;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package school.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Buckets read a clock the test moves by hand, so pauses in the test (class loading, GC) cannot
+// refill them.
+class TokenBucketTest {
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void startsFullWithBurstTokens() {
+        TokenBucket bucket = bucket(1, 3);
+
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isPositive();
+    }
+
+    @Test
+    void waitOfAnEmptyBucketIsOneInterval() {
+        TokenBucket bucket = bucket(10, 1);
+        bucket.tryAcquire();
+
+        assertThat(bucket.tryAcquire()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void deniedAttemptsDoNotConsumeTokens() {
+        TokenBucket bucket = bucket(10, 1);
+        bucket.tryAcquire();
+
+        long first = bucket.tryAcquire();
+        long second = bucket.tryAcquire();
+
+        // Both report the same token; a denied attempt must not push it further away.
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucket bucket = bucket(20, 1);
+        bucket.tryAcquire();
+        long waitNanos = bucket.tryAcquire();
+
+        advance(waitNanos - 1);
+        assertThat(bucket.tryAcquire()).isEqualTo(1);
+
+        advance(1);
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isPositive();
+    }
+
+    @Test
+    void refillsNoMoreThanTheBurst() {
+        TokenBucket bucket = bucket(50, 2);
+        bucket.tryAcquire();
+        bucket.tryAcquire();
+
+        // Idle for many intervals: the bucket is full again, but holds only the burst.
+        advance(TimeUnit.SECONDS.toNanos(10));
+
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isPositive();
+    }
+
+    @Test
+    void grantsTheConfiguredRate() {
+        TokenBucket bucket = bucket(1000, 1);
+        int granted = 0;
+        for (int i = 0; i < 2000; i++) {
+            if (bucket.tryAcquire() == 0) {
+                granted++;
+            }
+            advance(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+
+        // 200 ms at 1000/s.
+        assertThat(granted).isEqualTo(200);
+    }
+
+    @Test
+    void releaseGivesATokenBack() {
+        TokenBucket bucket = bucket(1, 1);
+        bucket.tryAcquire();
+
+        bucket.release();
+
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isPositive();
+    }
+
+    @Test
+    void comparesSettings() {
+        TokenBucket bucket = bucket(5, 2);
+
+        assertThat(bucket.hasSettings(5, 2)).isTrue();
+        assertThat(bucket.hasSettings(5, 3)).isFalse();
+        assertThat(bucket.hasSettings(6, 2)).isFalse();
+    }
+
+    private TokenBucket bucket(double permitsPerSecond, int burst) {
+        return new TokenBucket(permitsPerSecond, burst, now::get);
+    }
+
+    private void advance(long nanos) {
+        now.addAndGet(nanos);
+    }
+}
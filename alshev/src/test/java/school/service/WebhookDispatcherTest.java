@@ -0,0 +1,257 @@
+package school.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import school.dto.NotificationEvent;
+import school.dto.NotificationTask;
+import school.dto.SchoolEntityDTO;
+import school.dto.SubscriberDto;
+import school.exception.NotificationSendingException;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Deliveries wait in a queue until the test runs them, so it decides what is in flight.
+class WebhookDispatcherTest {
+    private static final long SCHOOL_ID = 7L;
+    private static final String DELIVERED = "доставлено";
+    private static final String NOT_DELIVERED = "не доставлено";
+    private static final String CANCELLED = "отменено";
+
+    private final Queue<Runnable> executor = new ArrayDeque<>();
+    private final TaskScheduler scheduler = mock(TaskScheduler.class);
+    private final SchoolNotificationSender sender = mock(SchoolNotificationSender.class);
+    private final NotificationStatusService statusService = mock(NotificationStatusService.class);
+    private final WebhookRetryScheduler retryScheduler = mock(WebhookRetryScheduler.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final WebhookDispatcher dispatcher = new WebhookDispatcher(
+            (TaskExecutor) executor::add,
+            sender,
+            statusService,
+            retryScheduler,
+            scheduler,
+            new CircuitBreakerRegistry(scheduler, 20, 5, 0.5, 3000, 0.8, 30000),
+            mock(DeliveryLogService.class),
+            new NotificationMetrics(registry),
+            4, true, 64, 2.0, 0.9, 600000
+    );
+
+    WebhookDispatcherTest() {
+        when(sender.send(any())).thenReturn(200);
+        when(sender.sendBatch(any(), any())).thenReturn(200);
+    }
+
+    @Test
+    void startsTheNextDeliveryOfASchoolOnlyAfterTheFirstIsDelivered() {
+        NotificationTask first = task(subscriber(null));
+        NotificationTask second = task(subscriber(null));
+
+        dispatcher.submit(first);
+        dispatcher.submit(second);
+        assertThat(executor).hasSize(1);
+
+        runQueued();
+
+        InOrder order = inOrder(sender);
+        order.verify(sender).send(same(first));
+        order.verify(sender).send(same(second));
+        verify(statusService).saveNotificationStatus(same(first), eq(DELIVERED), eq(1), any(), any());
+        verify(statusService).saveNotificationStatus(same(second), eq(DELIVERED), eq(1), any(), any());
+        assertThat(waiting()).isZero();
+    }
+
+    @Test
+    void keepsTheNextDeliveryWaitingWhileTheFirstIsRetried() {
+        NotificationTask first = task(subscriber(null));
+        NotificationTask second = task(subscriber(null));
+        when(sender.send(same(first))).thenThrow(unavailable()).thenReturn(200);
+        when(retryScheduler.canRetry(1)).thenReturn(true);
+
+        dispatcher.submit(first);
+        dispatcher.submit(second);
+        runQueued();
+
+        ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+        verify(retryScheduler).schedule(retry.capture(), eq(1));
+        verify(sender, never()).send(same(second));
+        assertThat(waiting()).isEqualTo(1);
+
+        retry.getValue().run();
+        runQueued();
+
+        InOrder order = inOrder(sender);
+        order.verify(sender, times(2)).send(same(first));
+        order.verify(sender).send(same(second));
+        verify(statusService).saveNotificationStatus(same(first), eq(DELIVERED), eq(2), any(), any());
+        assertThat(waiting()).isZero();
+    }
+
+    @Test
+    void startsTheNextDeliveryAfterTheFirstIsGivenUp() {
+        NotificationTask first = task(subscriber(null));
+        NotificationTask second = task(subscriber(null));
+        when(sender.send(same(first))).thenThrow(unavailable());
+
+        dispatcher.submit(first);
+        dispatcher.submit(second);
+        runQueued();
+
+        verify(statusService).saveNotificationStatus(same(first), eq(NOT_DELIVERED), eq(1), any(), any());
+        verify(statusService).saveNotificationStatus(same(second), eq(DELIVERED), eq(1), any(), any());
+        assertThat(waiting()).isZero();
+    }
+
+    @Test
+    void cancelsInFlightAndWaitingDeliveriesOfARemovedSubscriber() {
+        NotificationTask first = task(subscriber(null));
+        NotificationTask second = task(subscriber(null));
+        dispatcher.submit(first);
+        dispatcher.submit(second);
+
+        dispatcher.removeSubscriber(1L);
+        runQueued();
+
+        verify(sender, never()).send(any());
+        verify(statusService).saveNotificationStatus(same(first), eq(CANCELLED), anyInt(), any(), any());
+        verify(statusService).saveNotificationStatus(same(second), eq(CANCELLED), anyInt(), any(), any());
+        assertThat(waiting()).isZero();
+    }
+
+    @Test
+    void sendsASubscribersBatchesOneAtATime() {
+        SubscriberDto subscriber = subscriber(2);
+        NotificationTask first = task(subscriber);
+        NotificationTask second = task(subscriber);
+        NotificationTask third = task(subscriber);
+        NotificationTask fourth = task(subscriber);
+
+        dispatcher.submit(first);
+        dispatcher.submit(second);
+        dispatcher.submit(third);
+        dispatcher.submit(fourth);
+        assertThat(executor).hasSize(1);
+        assertThat(waiting()).isEqualTo(1);
+
+        executor.poll().run();
+        verify(sender).sendBatch(batchOf(first, second), any());
+        verify(sender, never()).sendBatch(batchOf(third, fourth), any());
+        assertThat(executor).hasSize(1);
+
+        runQueued();
+        verify(sender).sendBatch(batchOf(third, fourth), any());
+    }
+
+    @Test
+    void changedBatchSettingsFlushTheBufferedTasksFirst() {
+        NotificationTask first = task(subscriber(10));
+        NotificationTask second = task(subscriber(5));
+
+        dispatcher.submit(first);
+        verify(sender, never()).sendBatch(any(), any());
+
+        dispatcher.submit(second);
+        runQueued();
+
+        verify(sender).sendBatch(batchOf(first), any());
+        verify(sender, never()).sendBatch(batchOf(second), any());
+    }
+
+    @Test
+    void turningBatchingOffFlushesTheBufferedTasksBeforeTheNextDelivery() {
+        NotificationTask first = task(subscriber(10));
+        NotificationTask second = task(subscriber(null));
+
+        dispatcher.submit(first);
+        dispatcher.submit(second);
+        runQueued();
+
+        InOrder order = inOrder(sender);
+        order.verify(sender).sendBatch(batchOf(first), any());
+        order.verify(sender).send(same(second));
+    }
+
+    @Test
+    void timesEachCallOfASubscriberWithPercentiles() {
+        SubscriberDto subscriber = subscriber(2);
+        dispatcher.submit(task(subscriber));
+        dispatcher.submit(task(subscriber));
+        runQueued();
+
+        Timer timer = registry.get("notification.http.send.subscriber").tag("subscriber", "1").timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.takeSnapshot().percentileValues())
+                .extracting(ValueAtPercentile::percentile)
+                .containsExactly(0.5, 0.99);
+    }
+
+    @Test
+    void removingASubscriberDropsItsMeters() {
+        dispatcher.submit(task(subscriber(null)));
+        runQueued();
+        assertThat(registry.find("notification.deliveries").tag("subscriber", "1").counters()).hasSize(1);
+        assertThat(registry.find("notification.http.send.subscriber").tag("subscriber", "1").timers()).hasSize(1);
+
+        dispatcher.removeSubscriber(1L);
+        dispatcher.submit(task(subscriber(null)));
+
+        assertThat(registry.find("notification.deliveries").tag("subscriber", "1").counters()).isEmpty();
+        assertThat(registry.find("notification.http.send.subscriber").tag("subscriber", "1").timers()).isEmpty();
+    }
+
+    private static List<NotificationTask> batchOf(NotificationTask... tasks) {
+        return argThat(batch -> batch.size() == tasks.length
+                && IntStream.range(0, tasks.length).allMatch(i -> batch.get(i) == tasks[i]));
+    }
+
+    private void runQueued() {
+        for (Runnable delivery = executor.poll(); delivery != null; delivery = executor.poll()) {
+            delivery.run();
+        }
+    }
+
+    private double waiting() {
+        return registry.get("notification.delivery.waiting").gauge().value();
+    }
+
+    private static NotificationSendingException unavailable() {
+        return new NotificationSendingException("Service unavailable", 503, null);
+    }
+
+    private static SubscriberDto subscriber(Integer batchSize) {
+        SubscriberDto subscriber = new SubscriberDto();
+        subscriber.setId(1L);
+        subscriber.setUrl("http://localhost/hook");
+        subscriber.setBatchSize(batchSize);
+        subscriber.setBatchLingerMs(60000L);
+        return subscriber;
+    }
+
+    // Every task is about the same school, so the sequencer orders them. Tasks about the same school
+    // are equal, so they are matched by identity.
+    private static NotificationTask task(SubscriberDto subscriber) {
+        SchoolEntityDTO school = new SchoolEntityDTO();
+        school.setId(SCHOOL_ID);
+        return new NotificationTask(NotificationEvent.created(school), subscriber);
+    }
+}
@@ -0,0 +1,33 @@
+/* ---------------------------------------------------- */
+/*  School change events waiting to be sent to          */
+/*  subscribers (transactional outbox)                  */
+/*  DBMS       : PostgreSQL 						*/
+/* ---------------------------------------------------- */
+
+/* Drop Tables */
+
+--DROP TABLE IF EXISTS school_outbox CASCADE--
+;
+
+/* Create Tables */
+
+CREATE TABLE school_outbox
+(
+	id bigint GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+	school_id bigint NOT NULL,
+	event_type varchar(20) NOT NULL,
+	payload text NOT NULL,
+	created_at timestamp without time zone NOT NULL,
+	locked_until timestamp without time zone NULL,
+	claim_count integer NOT NULL DEFAULT 0
+)
+;
+
+/* Create Primary Keys, Indexes, Uniques, Checks */
+
+ALTER TABLE school_outbox ADD CONSTRAINT "PK_school_outbox"
+	PRIMARY KEY (id)
+;
+
+CREATE INDEX "IX_school_outbox_locked_until" ON school_outbox (locked_until, id)
+;
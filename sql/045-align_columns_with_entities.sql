@@ -0,0 +1,42 @@
+/* ---------------------------------------------------- */
+/*  Align the original tables with the JPA entities:    */
+/*  column names, attempts type and generated ids       */
+/*  DBMS       : PostgreSQL 						*/
+/* ---------------------------------------------------- */
+
+/* school */
+
+ALTER TABLE school RENAME COLUMN update_at TO updated_at
+;
+
+/* subscribers */
+
+ALTER TABLE subscribers RENAME COLUMN create_at TO created_at
+;
+
+ALTER TABLE subscribers ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY
+;
+
+SELECT setval(pg_get_serial_sequence('subscribers', 'id'), GREATEST(COALESCE(MAX(id), 0), 1)) FROM subscribers
+;
+
+/* notification_status */
+
+ALTER TABLE notification_status RENAME COLUMN subscirer_id TO subscriber_id
+;
+
+ALTER TABLE notification_status RENAME COLUMN attemps TO attempts
+;
+
+ALTER TABLE notification_status ALTER COLUMN attempts TYPE integer
+;
+
+/* The entity does not map the timestamps; the database fills them in */
+ALTER TABLE notification_status ALTER COLUMN create_at SET DEFAULT now(), ALTER COLUMN update_at SET DEFAULT now()
+;
+
+ALTER TABLE notification_status ALTER COLUMN id ADD GENERATED BY DEFAULT AS IDENTITY
+;
+
+SELECT setval(pg_get_serial_sequence('notification_status', 'id'), GREATEST(COALESCE(MAX(id), 0), 1)) FROM notification_status
+;
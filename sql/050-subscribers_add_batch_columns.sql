@@ -0,0 +1,10 @@
+/* ---------------------------------------------------- */
+/*  Opt-in batch delivery settings for subscribers      */
+/*  DBMS       : PostgreSQL 						*/
+/* ---------------------------------------------------- */
+
+ALTER TABLE subscribers ADD COLUMN batch_size integer NULL
+;
+
+ALTER TABLE subscribers ADD COLUMN batch_linger_ms bigint NULL
+;
@@ -0,0 +1,17 @@
+/* ---------------------------------------------------- */
+/*  Pooled sequences for school and school_outbox ids   */
+/*  so Hibernate can batch inserts (allocationSize 50)  */
+/*  DBMS       : PostgreSQL 						*/
+/* ---------------------------------------------------- */
+
+CREATE SEQUENCE school_seq INCREMENT BY 50 OWNED BY school.id
+;
+
+SELECT setval('school_seq', GREATEST(COALESCE(MAX(id), 0), 1)) FROM school
+;
+
+CREATE SEQUENCE school_outbox_seq INCREMENT BY 50 OWNED BY school_outbox.id
+;
+
+SELECT setval('school_outbox_seq', GREATEST(COALESCE(MAX(id), 0), 1)) FROM school_outbox
+;
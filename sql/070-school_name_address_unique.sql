@@ -0,0 +1,13 @@
+/* ---------------------------------------------------- */
+/*  One school per name and address                     */
+/*  DBMS       : PostgreSQL 						*/
+/* ---------------------------------------------------- */
+
+/* Existing duplicates must be resolved first, e.g.:
+   SELECT name, address, count(*) FROM school GROUP BY name, address HAVING count(*) > 1 */
+
+/* Create Primary Keys, Indexes, Uniques, Checks */
+
+ALTER TABLE school ADD CONSTRAINT "UK_school_name_address"
+	UNIQUE (name, address)
+;
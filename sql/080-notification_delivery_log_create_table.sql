@@ -0,0 +1,48 @@
+/* ---------------------------------------------------- */
+/*  Append-only log of webhook delivery attempts        */
+/*  DBMS       : PostgreSQL 						*/
+/* ---------------------------------------------------- */
+
+/* Drop Tables */
+
+--DROP TABLE IF EXISTS notification_delivery_log CASCADE--
+;
+
+/* Create Tables */
+
+CREATE TABLE notification_delivery_log
+(
+	id bigint GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+	event_id bigint NULL,
+	school_id bigint NOT NULL,
+	subscriber_id bigint NOT NULL,
+	event_type varchar(20) NOT NULL,
+	attempt integer NOT NULL,
+	http_status integer NULL,
+	duration_ms bigint NOT NULL,
+	success boolean NOT NULL,
+	error varchar(500) NULL,
+	created_at timestamp without time zone NOT NULL
+)
+;
+
+/* Create Primary Keys, Indexes, Uniques, Checks */
+
+ALTER TABLE notification_delivery_log ADD CONSTRAINT "PK_notification_delivery_log"
+	PRIMARY KEY (id)
+;
+
+CREATE INDEX "IX_notification_delivery_log_subscriber" ON notification_delivery_log (subscriber_id, id)
+;
+
+CREATE INDEX "IX_notification_delivery_log_failed" ON notification_delivery_log (subscriber_id, id) WHERE NOT success
+;
+
+CREATE INDEX "IX_notification_delivery_log_school" ON notification_delivery_log (school_id, id)
+;
+
+CREATE INDEX "IX_notification_delivery_log_event" ON notification_delivery_log (event_id)
+;
+
+CREATE INDEX "IX_notification_delivery_log_created_at" ON notification_delivery_log (created_at)
+;
@@ -0,0 +1,107 @@
+/* ---------------------------------------------------- */
+/*  Daily range partitions for notification_delivery_log*/
+/*  and per-subscriber daily rollups for expired days.  */
+/*  Partitions are created ahead and dropped after the  */
+/*  retention period by NotificationHistoryRetention.   */
+/*  DBMS       : PostgreSQL 						*/
+/* ---------------------------------------------------- */
+
+ALTER TABLE notification_delivery_log RENAME TO notification_delivery_log_unpartitioned
+;
+
+ALTER TABLE notification_delivery_log_unpartitioned RENAME CONSTRAINT "PK_notification_delivery_log" TO "PK_notification_delivery_log_unpartitioned"
+;
+
+DROP INDEX "IX_notification_delivery_log_subscriber", "IX_notification_delivery_log_failed",
+	"IX_notification_delivery_log_school", "IX_notification_delivery_log_event", "IX_notification_delivery_log_created_at"
+;
+
+/* The identity sequence keeps its name across the table rename; free the name for the new table */
+ALTER SEQUENCE notification_delivery_log_id_seq RENAME TO notification_delivery_log_unpartitioned_id_seq
+;
+
+CREATE SEQUENCE notification_delivery_log_id_seq
+;
+
+SELECT setval('notification_delivery_log_id_seq', GREATEST(COALESCE(MAX(id), 0), 1)) FROM notification_delivery_log_unpartitioned
+;
+
+/* Create Tables */
+
+CREATE TABLE notification_delivery_log
+(
+	id bigint NOT NULL DEFAULT nextval('notification_delivery_log_id_seq'),
+	event_id bigint NULL,
+	school_id bigint NOT NULL,
+	subscriber_id bigint NOT NULL,
+	event_type varchar(20) NOT NULL,
+	attempt integer NOT NULL,
+	http_status integer NULL,
+	duration_ms bigint NOT NULL,
+	success boolean NOT NULL,
+	error varchar(500) NULL,
+	created_at timestamp without time zone NOT NULL
+) PARTITION BY RANGE (created_at)
+;
+
+ALTER SEQUENCE notification_delivery_log_id_seq OWNED BY notification_delivery_log.id
+;
+
+/* Rows outside every daily partition land here instead of failing the insert */
+CREATE TABLE notification_delivery_log_default PARTITION OF notification_delivery_log DEFAULT
+;
+
+CREATE TABLE notification_delivery_daily
+(
+	day date NOT NULL,
+	subscriber_id bigint NOT NULL,
+	attempts bigint NOT NULL,
+	failures bigint NOT NULL,
+	total_duration_ms bigint NOT NULL,
+	max_duration_ms bigint NOT NULL
+)
+;
+
+/* Create Primary Keys, Indexes, Uniques, Checks */
+
+ALTER TABLE notification_delivery_log ADD CONSTRAINT "PK_notification_delivery_log"
+	PRIMARY KEY (id, created_at)
+;
+
+CREATE INDEX "IX_notification_delivery_log_subscriber" ON notification_delivery_log (subscriber_id, id)
+;
+
+CREATE INDEX "IX_notification_delivery_log_failed" ON notification_delivery_log (subscriber_id, id) WHERE NOT success
+;
+
+CREATE INDEX "IX_notification_delivery_log_school" ON notification_delivery_log (school_id, id)
+;
+
+CREATE INDEX "IX_notification_delivery_log_event" ON notification_delivery_log (event_id)
+;
+
+CREATE INDEX "IX_notification_delivery_log_created_at" ON notification_delivery_log (created_at)
+;
+
+ALTER TABLE notification_delivery_daily ADD CONSTRAINT "PK_notification_delivery_daily"
+	PRIMARY KEY (day, subscriber_id)
+;
+
+/* Move existing rows; the application creates daily partitions on startup */
+
+INSERT INTO notification_delivery_log SELECT * FROM notification_delivery_log_unpartitioned
+;
+
+DROP TABLE notification_delivery_log_unpartitioned
+;
+
+/* Retention deletes notification_status by created_at; rows are never updated, so update_at goes */
+
+ALTER TABLE notification_status RENAME COLUMN create_at TO created_at
+;
+
+ALTER TABLE notification_status DROP COLUMN update_at
+;
+
+CREATE INDEX "IX_notification_status_created_at" ON notification_status (created_at)
+;
@@ -0,0 +1,10 @@
+/* ---------------------------------------------------- */
+/*  Opt-in outbound rate limit for subscribers          */
+/*  DBMS       : PostgreSQL 						*/
+/* ---------------------------------------------------- */
+
+ALTER TABLE subscribers ADD COLUMN rate_limit_per_second double precision NULL
+;
+
+ALTER TABLE subscribers ADD COLUMN rate_limit_burst integer NULL
+;
@@ -0,0 +1,9 @@
+/* ---------------------------------------------------- */
+/*  The relay claims outbox rows in insertion order;    */
+/*  ids come from a pooled sequence and do not follow   */
+/*  it across nodes.                                    */
+/*  DBMS       : PostgreSQL 						*/
+/* ---------------------------------------------------- */
+
+CREATE INDEX "IX_school_outbox_created_at" ON school_outbox (created_at, id)
+;
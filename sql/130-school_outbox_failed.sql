@@ -0,0 +1,11 @@
+/* ---------------------------------------------------- */
+/*  Outbox rows that cannot be turned into an event are */
+/*  marked failed and no longer claimed                 */
+/*  DBMS       : PostgreSQL 						*/
+/* ---------------------------------------------------- */
+
+ALTER TABLE school_outbox ADD COLUMN failed_at timestamp without time zone NULL
+;
+
+ALTER TABLE school_outbox ADD COLUMN error varchar(500) NULL
+;
@@ -0,0 +1,8 @@
+/* ---------------------------------------------------- */
+/*  Delivery log rows of events without a school id     */
+/*  are recorded with a null school_id                  */
+/*  DBMS       : PostgreSQL 						*/
+/* ---------------------------------------------------- */
+
+ALTER TABLE notification_delivery_log ALTER COLUMN school_id DROP NOT NULL
+;
@@ -0,0 +1,8 @@
+/* ---------------------------------------------------- */
+/*  The relay holds a row back while an older row of    */
+/*  its school is leased, looked up by school here      */
+/*  DBMS       : PostgreSQL 						*/
+/* ---------------------------------------------------- */
+
+CREATE INDEX "IX_school_outbox_school" ON school_outbox (school_id, created_at, id)
+;